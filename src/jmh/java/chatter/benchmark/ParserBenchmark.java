@@ -0,0 +1,135 @@
+package chatter.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chatter.exception.ChatterException;
+import chatter.parser.Parser;
+import chatter.storage.LoadMode;
+import chatter.storage.Storage;
+import chatter.storage.StorageFormat;
+import chatter.task.TaskList;
+import chatter.ui.Ui;
+
+/**
+ * Benchmarks {@link Parser#parse} for each command against a generated task list, with storage
+ * configured as in {@code Chatter}. Commands that change the list are paired with the command that
+ * undoes them, so the list stays the same size throughout a run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"1000", "100000"})
+    private int size;
+
+    private Path directory;
+    private Storage storage;
+    private TaskList tasks;
+    private Ui ui;
+
+    /**
+     * Loads a generated task file through a journaled, coalescing {@code Storage}.
+     *
+     * @throws IOException if the task file cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("chatter-bench");
+        Path file = TaskGenerator.writeTaskFile(directory, size, StorageFormat.TEXT);
+        storage = new Storage(file.toString());
+        storage.setJournaled(true);
+        storage.setLoadMode(LoadMode.PARALLEL);
+        storage.setSaveWindow(200);
+        tasks = storage.load();
+        ui = new Ui();
+    }
+
+    /**
+     * Flushes pending writes and deletes the task file.
+     *
+     * @throws IOException if the files cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        storage.close();
+        TaskGenerator.deleteDirectory(directory);
+    }
+
+    /** Lists every task. */
+    @Benchmark
+    public String list() throws ChatterException {
+        return Parser.parse("list", tasks, ui, storage);
+    }
+
+    /** Finds the tasks containing two common words. */
+    @Benchmark
+    public String find() throws ChatterException {
+        return Parser.parse("find budget report", tasks, ui, storage);
+    }
+
+    /** Lists the tasks on one day. */
+    @Benchmark
+    public String on() throws ChatterException {
+        return Parser.parse("on 2024-03-15", tasks, ui, storage);
+    }
+
+    /** Lists the tasks in one week. */
+    @Benchmark
+    public String between() throws ChatterException {
+        return Parser.parse("between 2024-03-01 2024-03-07", tasks, ui, storage);
+    }
+
+    /** Marks a task as done, then as not done. */
+    @Benchmark
+    public String markUnmark() throws ChatterException {
+        Parser.parse("mark 2", tasks, ui, storage);
+        return Parser.parse("unmark 2", tasks, ui, storage);
+    }
+
+    /** Marks the first hundred tasks as done with one range, then as not done. */
+    @Benchmark
+    public String bulkMarkUnmark() throws ChatterException {
+        Parser.parse("mark 1-100", tasks, ui, storage);
+        return Parser.parse("unmark 1-100", tasks, ui, storage);
+    }
+
+    /** Adds a to-do, then deletes it. */
+    @Benchmark
+    public String todoDelete() throws ChatterException {
+        Parser.parse("todo benchmark task", tasks, ui, storage);
+        return Parser.parse("delete " + tasks.getSize(), tasks, ui, storage);
+    }
+
+    /** Adds a deadline, then deletes it. */
+    @Benchmark
+    public String deadlineDelete() throws ChatterException {
+        Parser.parse("deadline benchmark task /by 2024-06-01 1800", tasks, ui, storage);
+        return Parser.parse("delete " + tasks.getSize(), tasks, ui, storage);
+    }
+
+    /** Adds an event, then deletes it. */
+    @Benchmark
+    public String eventDelete() throws ChatterException {
+        Parser.parse("event benchmark task /from 2024-06-01 1800 /to 2024-06-01 2000", tasks, ui, storage);
+        return Parser.parse("delete " + tasks.getSize(), tasks, ui, storage);
+    }
+}
@@ -0,0 +1,145 @@
+package chatter.benchmark;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chatter.server.ChatterServer;
+
+/**
+ * Benchmarks a {@link ChatterServer} under load: each client connects as its own user, adds tasks and marks
+ * them, keeping a window of commands in flight. The score is the number of commands answered per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerBenchmark {
+    /** Number of clients connected at once */
+    private static final int CLIENTS = 16;
+
+    /** Commands each client sends per invocation */
+    private static final int COMMANDS_PER_CLIENT = 1000;
+
+    /** Commands a client sends before waiting for their answers */
+    private static final int WINDOW = 50;
+
+    private Path directory;
+    private ChatterServer server;
+    private ExecutorService clients;
+
+    /** Number of invocations so far, which gives every invocation users of its own */
+    private int round;
+
+    /**
+     * Starts the server on an ephemeral port.
+     *
+     * @throws IOException if the data directory cannot be created or the server cannot start
+     */
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("chatter-bench");
+        server = new ChatterServer(directory, CLIENTS, 60_000);
+        server.start(0);
+        clients = Executors.newFixedThreadPool(CLIENTS);
+    }
+
+    /**
+     * Stops the server and deletes the task files.
+     *
+     * @throws IOException if the files cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        clients.shutdown();
+        server.close();
+        TaskGenerator.deleteDirectory(directory);
+    }
+
+    /**
+     * Runs every client to completion.
+     *
+     * @return the number of commands answered
+     * @throws ExecutionException if a client fails
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    @Benchmark
+    @OperationsPerInvocation(CLIENTS * COMMANDS_PER_CLIENT)
+    public int serve() throws ExecutionException, InterruptedException {
+        round++;
+        List<Future<Integer>> answers = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            String user = "r" + round + "c" + c;
+            answers.add(clients.submit(() -> runCommands(server.getPort(), user)));
+        }
+        int answered = 0;
+        for (Future<Integer> answer : answers) {
+            answered += answer.get();
+        }
+        return answered;
+    }
+
+    /**
+     * Adds tasks as {@code user} and marks each of them, and returns the number of answers received.
+     */
+    private static int runCommands(int port, String user) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.UTF_8));
+            out.write(user + "\n");
+            out.flush();
+            skipAnswer(in);
+            int answered = 0;
+            for (int sent = 0; sent < COMMANDS_PER_CLIENT; ) {
+                int windowEnd = Math.min(COMMANDS_PER_CLIENT, sent + WINDOW);
+                for (; sent < windowEnd; sent++) {
+                    int task = sent / 2;
+                    out.write(sent % 2 == 0 ? "todo task " + task + "\n" : "mark " + (task + 1) + "\n");
+                }
+                out.flush();
+                for (; answered < windowEnd; answered++) {
+                    skipAnswer(in);
+                }
+            }
+            return answered;
+        }
+    }
+
+    private static void skipAnswer(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+            // Only the end of each answer matters here.
+        }
+    }
+}
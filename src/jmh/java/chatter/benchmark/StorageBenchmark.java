@@ -0,0 +1,110 @@
+package chatter.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chatter.storage.LoadMode;
+import chatter.storage.Storage;
+import chatter.storage.StorageFormat;
+import chatter.task.IndexedTaskList;
+import chatter.task.TaskList;
+
+/**
+ * Benchmarks loading a generated task file in each {@link LoadMode} and saving it in full.
+ * The lazy and mapped modes only index the file; their tasks are parsed when first accessed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StorageBenchmark {
+    @Param({"1000", "100000"})
+    private int size;
+
+    @Param({"TEXT", "BINARY"})
+    private StorageFormat format;
+
+    private Path directory;
+    private Path file;
+    private TaskList tasks;
+    private Storage saveStorage;
+
+    /**
+     * Writes the task file to load and prepares a separate file to save to.
+     *
+     * @throws IOException if the files cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("chatter-bench");
+        file = TaskGenerator.writeTaskFile(directory, size, format);
+        tasks = new IndexedTaskList(TaskGenerator.generate(size));
+        saveStorage = new Storage(Files.createTempFile(directory, "saved", ".txt").toString());
+        saveStorage.setFormat(format);
+    }
+
+    /**
+     * Deletes the task files.
+     *
+     * @throws IOException if the files cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        saveStorage.close();
+        TaskGenerator.deleteDirectory(directory);
+    }
+
+    /** Loads the task file line by line. */
+    @Benchmark
+    public TaskList loadStreaming() {
+        return load(LoadMode.STREAMING);
+    }
+
+    /** Loads the task file in parallel chunks. */
+    @Benchmark
+    public TaskList loadParallel() {
+        return load(LoadMode.PARALLEL);
+    }
+
+    /** Indexes the task file for lazy parsing. */
+    @Benchmark
+    public TaskList loadLazy() {
+        return load(LoadMode.LAZY);
+    }
+
+    /** Maps and indexes the task file. */
+    @Benchmark
+    public TaskList loadMapped() {
+        return load(LoadMode.MAPPED);
+    }
+
+    /** Encodes and writes every task. */
+    @Benchmark
+    public void save() {
+        saveStorage.save(tasks);
+    }
+
+    private TaskList load(LoadMode mode) {
+        Storage storage = new Storage(file.toString());
+        storage.setFormat(format);
+        storage.setLoadMode(mode);
+        return storage.load();
+    }
+}
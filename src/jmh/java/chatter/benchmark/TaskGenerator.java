@@ -0,0 +1,113 @@
+package chatter.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import chatter.exception.ChatterException;
+import chatter.storage.Storage;
+import chatter.storage.StorageFormat;
+import chatter.task.Deadline;
+import chatter.task.Event;
+import chatter.task.IndexedTaskList;
+import chatter.task.Task;
+import chatter.task.TaskList;
+import chatter.task.ToDo;
+
+/**
+ * Generates the synthetic task lists used by the benchmarks.
+ * The same seed is always used, so every run benchmarks exactly the same data.
+ */
+public class TaskGenerator {
+    /** Words descriptions are made of; every benchmark query uses words from this list */
+    static final String[] WORDS = {
+        "read", "book", "return", "library", "submit", "report", "budget", "review", "meeting", "project",
+        "call", "mum", "buy", "groceries", "plan", "trip", "finish", "assignment", "gym", "session",
+    };
+
+    /** Date all generated dates are spread from */
+    static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    /** Number of days generated dates are spread over */
+    static final int DAYS = 365;
+
+    private static final long SEED = 2103L;
+
+    private TaskGenerator() {
+    }
+
+    /**
+     * Generates {@code count} distinct tasks: half to-dos, and a quarter each of deadlines and events.
+     * Every tenth task is done.
+     *
+     * @param count the number of tasks
+     * @return the generated tasks
+     */
+    public static ArrayList<Task> generate(int count) {
+        Random random = new Random(SEED);
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            LocalDateTime at = START.plusMinutes(random.nextInt(DAYS * 24 * 60));
+            Task t;
+            switch (i % 4) {
+            case 0:
+                t = new Deadline(description, at);
+                break;
+            case 1:
+                try {
+                    t = new Event(description, at, at.plusHours(1 + random.nextInt(72)));
+                } catch (ChatterException e) {
+                    throw new IllegalStateException(e);
+                }
+                break;
+            default:
+                t = new ToDo(description);
+                break;
+            }
+            if (i % 10 == 0) {
+                t.markAsDone();
+            }
+            tasks.add(t);
+        }
+        return tasks;
+    }
+
+    /**
+     * Writes {@code count} generated tasks to a new task file in {@code directory}.
+     *
+     * @param directory the directory to create the file in
+     * @param count the number of tasks
+     * @param format the format of the file
+     * @return the path of the task file
+     * @throws IOException if the file cannot be created
+     */
+    public static Path writeTaskFile(Path directory, int count, StorageFormat format) throws IOException {
+        Path file = Files.createTempFile(directory, "tasks", ".txt");
+        Storage storage = new Storage(file.toString());
+        storage.setFormat(format);
+        storage.save(new IndexedTaskList(generate(count)));
+        storage.close();
+        return file;
+    }
+
+    /**
+     * Deletes {@code directory} and every file in it.
+     *
+     * @param directory the directory to delete
+     * @throws IOException if a file cannot be deleted
+     */
+    public static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
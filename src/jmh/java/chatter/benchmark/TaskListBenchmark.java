@@ -0,0 +1,95 @@
+package chatter.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chatter.exception.ChatterException;
+import chatter.storage.TaskListBackend;
+import chatter.task.ColumnarTaskList;
+import chatter.task.ConcurrentTaskList;
+import chatter.task.IndexedTaskList;
+import chatter.task.Task;
+import chatter.task.TaskList;
+import chatter.task.ToDo;
+
+/**
+ * Benchmarks adding to and searching a {@link TaskList} of 10³ to 10⁶ generated tasks,
+ * kept in each {@link TaskListBackend}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskListBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"INDEXED", "COLUMNAR", "CONCURRENT"})
+    private TaskListBackend backend;
+
+    private TaskList tasks;
+
+    /**
+     * Builds the task list, including its indexes.
+     */
+    @Setup
+    public void setUp() {
+        switch (backend) {
+        case COLUMNAR:
+            tasks = new ColumnarTaskList(TaskGenerator.generate(size));
+            break;
+        case CONCURRENT:
+            tasks = new ConcurrentTaskList(TaskGenerator.generate(size));
+            break;
+        default:
+            tasks = new IndexedTaskList(TaskGenerator.generate(size));
+        }
+    }
+
+    /**
+     * Adds a new task, then removes it again so that the list keeps its size.
+     *
+     * @return the list size after the add
+     * @throws ChatterException if the task cannot be added
+     */
+    @Benchmark
+    public int addRemove() throws ChatterException {
+        tasks.add(new ToDo("benchmark task"));
+        int newSize = tasks.getSize();
+        tasks.remove(newSize - 1);
+        return newSize;
+    }
+
+    /** Finds the tasks containing two common words, which uses the keyword index. */
+    @Benchmark
+    public List<Task> findMatching() {
+        return tasks.findMatching("budget report");
+    }
+
+    /** Finds the tasks containing a word too short to be indexed, which scans the list. */
+    @Benchmark
+    public List<Task> findMatchingShortWord() {
+        return tasks.findMatching("gy");
+    }
+
+    /** Finds the deadlines and events in one week. */
+    @Benchmark
+    public List<Task> findBetween() {
+        return tasks.findBetween(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 7));
+    }
+}
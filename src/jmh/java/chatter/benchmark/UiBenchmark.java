@@ -0,0 +1,58 @@
+package chatter.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chatter.exception.ChatterException;
+import chatter.task.IndexedTaskList;
+import chatter.task.TaskList;
+import chatter.ui.Ui;
+
+/**
+ * Benchmarks rendering a generated task list, whole and one page at a time, with {@link Ui#showList}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UiBenchmark {
+    @Param({"1000", "100000"})
+    private int size;
+
+    private TaskList tasks;
+    private Ui ui;
+
+    /**
+     * Builds the task list to render.
+     */
+    @Setup
+    public void setUp() {
+        tasks = new IndexedTaskList(TaskGenerator.generate(size));
+        ui = new Ui();
+    }
+
+    /** Renders every task on a single page. */
+    @Benchmark
+    public String showList() throws ChatterException {
+        return ui.showList(tasks, 1, size);
+    }
+
+    /** Renders a page of the default size from the middle of the list. */
+    @Benchmark
+    public String showPage() throws ChatterException {
+        return ui.showList(tasks, size / Ui.DEFAULT_PAGE_SIZE / 2, Ui.DEFAULT_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,119 @@
+package chatter.gui;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.shape.Circle;
+
+/**
+ * Compares the cost of creating a dialog box by parsing {@code /view/DialogBox.fxml} and clipping
+ * a new avatar view, as every message used to, with stamping one from {@link DialogBoxTemplate}
+ * and with updating a dialog box that a list cell already owns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DialogBoxBenchmark {
+    private static final String TEXT =
+            "Got it. I've added this task:\n  [T][ ] read book\nNow you have 5 tasks in the list.";
+
+    private Image avatar;
+    private DialogBox cellDialogBox;
+
+    /**
+     * Starts the JavaFX toolkit and loads the avatar.
+     *
+     * @throws InterruptedException if interrupted while the toolkit starts
+     */
+    @Setup
+    public void setUp() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException e) {
+            started.countDown();
+        }
+        started.await();
+        avatar = new Image(DialogBoxBenchmark.class.getResourceAsStream("/images/DaUser.png"));
+        cellDialogBox = DialogBox.create();
+    }
+
+    /**
+     * Parses the FXML file and clips a new avatar view for one message.
+     *
+     * @return the new dialog box
+     * @throws IOException if the FXML file cannot be read
+     */
+    @Benchmark
+    public HBox parseFxml() throws IOException {
+        FxmlDialogBox controller = new FxmlDialogBox();
+        HBox box = new HBox();
+        FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
+        fxmlLoader.setController(controller);
+        fxmlLoader.setRoot(box);
+        fxmlLoader.load();
+        controller.dialog.setText(TEXT);
+        ImageView picture = new ImageView(avatar);
+        picture.setFitWidth(80);
+        picture.setFitHeight(80);
+        picture.setClip(new Circle(40, 40, 40));
+        box.getChildren().set(box.getChildren().indexOf(controller.displayPicture), picture);
+        return box;
+    }
+
+    /**
+     * Stamps a new dialog box from the parsed template and shows one message in it.
+     *
+     * @return the new dialog box
+     */
+    @Benchmark
+    public DialogBox stampTemplate() {
+        DialogBox box = DialogBox.create();
+        box.showUserDialog(TEXT, avatar);
+        return box;
+    }
+
+    /**
+     * Shows one message in an existing dialog box, as a recycled list cell does.
+     *
+     * @return the updated dialog box
+     */
+    @Benchmark
+    public DialogBox reuseCell() {
+        cellDialogBox.showUserDialog(TEXT, avatar);
+        return cellDialogBox;
+    }
+
+    /**
+     * Controller receiving the nodes of a parsed dialog box.
+     */
+    public static class FxmlDialogBox {
+        @FXML
+        private Label dialog;
+
+        @FXML
+        private ImageView displayPicture;
+    }
+}
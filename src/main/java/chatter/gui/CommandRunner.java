@@ -0,0 +1,66 @@
+package chatter.gui;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import chatter.ui.Chatter;
+import javafx.application.Platform;
+
+/**
+ * Runs user commands against a {@link Chatter} session on a background thread, so that parsing,
+ * searching and disk I/O never block the JavaFX Application Thread.
+ * Commands run one at a time in the order they are submitted, and their responses are delivered
+ * on the JavaFX Application Thread in the same order.
+ */
+class CommandRunner {
+    /** Longest time {@link #shutdown()} waits for submitted commands to finish */
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    /** Session the commands are run against */
+    private final Chatter chatter;
+
+    /** Single thread that runs the commands of this session */
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a {@code CommandRunner} for {@code chatter}.
+     *
+     * @param chatter the session to run commands against
+     */
+    CommandRunner(Chatter chatter) {
+        this.chatter = chatter;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chatter-commands");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs {@code input} after every previously submitted command, then passes the response
+     * to {@code onResponse} on the JavaFX Application Thread.
+     *
+     * @param input the user input
+     * @param onResponse the callback receiving Chatter's response
+     */
+    void submit(String input, Consumer<String> onResponse) {
+        executor.execute(() -> {
+            String response = chatter.getResponse(input);
+            Platform.runLater(() -> onResponse.accept(response));
+        });
+    }
+
+    /**
+     * Stops accepting commands and waits for the submitted ones to finish.
+     */
+    void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,102 +1,122 @@
 package chatter.gui;
 
-import java.io.IOException;
-import java.util.Collections;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
 import javafx.scene.control.Label;
+import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
+import javafx.scene.transform.Transform;
 
 /**
  * Represents a dialog box consisting of an {@link ImageView} to represent the speaker's face
  * and a {@link Label} containing text from the speaker.
+ * A dialog box can be updated to show a different message, so that list cells can reuse it.
  */
 public class DialogBox extends HBox {
+    /** Diameter of an avatar, in pixels. */
+    private static final double AVATAR_SIZE = 80;
+
+    /** Scale avatars are rendered at, so that they stay sharp on high-DPI screens. */
+    private static final double AVATAR_RENDER_SCALE = 2;
+
     /** Label containing the dialog text. */
-    @FXML
-    private Label dialog;
+    private final Label dialog = new Label();
 
     /** ImageView showing the speaker's avatar. */
-    @FXML
-    private ImageView displayPicture;
+    private final ImageView displayPicture = new ImageView();
+
+    /** Padding of a dialog box showing a whole message. */
+    private final Insets padding;
 
     /**
-     * Constructs a {@code DialogBox} with the specified text and image.
-     * Loads the FXML layout and assigns the given text and image.
-     *
-     * @param text The text to display in the dialog.
-     * @param displayPic The image representing the speaker's avatar.
+     * Constructs an empty {@code DialogBox} with the layout of {@code /view/DialogBox.fxml}.
      */
-    private DialogBox(String text, ImageView displayPic) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        dialog.setText(text);
-        int index = this.getChildren().indexOf(displayPicture);
-        this.getChildren().set(index, displayPic);
+    private DialogBox() {
+        DialogBoxTemplate.get().applyTo(this, dialog, displayPicture);
+        padding = getPadding();
+        displayPicture.setFitWidth(AVATAR_SIZE);
+        displayPicture.setFitHeight(AVATAR_SIZE);
+        getChildren().setAll(dialog, displayPicture);
     }
 
     /**
-     * Flips the dialog box such that the {@code ImageView} appears on the left
-     * and the text appears on the right. Used to differentiate between the user
-     * and Chatter responses.
+     * Creates an empty {@code DialogBox}, ready to show a message.
+     *
+     * @return a new {@code DialogBox}
      */
-    private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
+    static DialogBox create() {
+        return new DialogBox();
     }
 
     /**
-     * Creates a {@code DialogBox} representing the user's dialog.
-     * The image is displayed on the right side of the text.
+     * Shows the user's dialog, with the image on the right side of the text.
      *
      * @param text The user's message.
-     * @param userPic The user's avatar image.
-     * @return A {@code DialogBox} displaying the user's dialog.
+     * @param userImage The user's avatar, as rendered by {@link #renderAvatar}.
      */
-    public static DialogBox getUserDialog(String text, ImageView userPic) {
-        return new DialogBox(text, userPic);
+    void showUserDialog(String text, Image userImage) {
+        show(text, userImage);
+        if (getChildren().get(0) != dialog) {
+            getChildren().setAll(dialog, displayPicture);
+        }
+        setAlignment(Pos.TOP_RIGHT);
     }
 
     /**
-     * Creates a {@code DialogBox} representing Chatter's dialog.
-     * The dialog box is flipped so the image appears on the left of the text.
+     * Shows Chatter's dialog, with the image on the left side of the text.
      *
      * @param text Chatter's response message.
-     * @param chatterPic Chatter's avatar image.
-     * @return A {@code DialogBox} displaying Chatter's dialog.
+     * @param chatterImage Chatter's avatar, as rendered by {@link #renderAvatar}.
      */
-    public static DialogBox getChatterDialog(String text, ImageView chatterPic) {
-        var db = new DialogBox(text, chatterPic);
-        db.flip();
-        return db;
+    void showChatterDialog(String text, Image chatterImage) {
+        show(text, chatterImage);
+        if (getChildren().get(0) != displayPicture) {
+            getChildren().setAll(displayPicture, dialog);
+        }
+        setAlignment(Pos.TOP_LEFT);
     }
 
     /**
-     * Styles the profile picture to be circular.
+     * Joins this dialog box up with the boxes showing the other parts of the same message:
+     * only the first part shows the avatar, and parts are not padded where they meet.
      *
-     * @param imageView The ImageView to style.
+     * @param isFirstPart Whether the box shows the first part of its message.
+     * @param isLastPart Whether the box shows the last part of its message.
      */
-    public static void styleProfilePic(ImageView imageView) {
-        imageView.setFitWidth(80);
-        imageView.setFitHeight(80);
-        double radius = 40;
-        Circle clip = new Circle(radius, radius, radius);
-        imageView.setClip(clip);
+    void showAsPart(boolean isFirstPart, boolean isLastPart) {
+        displayPicture.setVisible(isFirstPart);
+        setPadding(new Insets(isFirstPart ? padding.getTop() : 0, padding.getRight(),
+                isLastPart ? padding.getBottom() : 0, padding.getLeft()));
+    }
+
+    private void show(String text, Image image) {
+        dialog.setText(text);
+        displayPicture.setImage(image);
     }
-}
 
+    /**
+     * Renders a circular avatar from a profile picture. The result is meant to be shared by every
+     * dialog box of the same speaker, so that none of them has to clip the picture itself.
+     * Must be called on the JavaFX Application Thread.
+     *
+     * @param picture The profile picture.
+     * @return The picture scaled down and clipped to a circle, with a transparent background.
+     */
+    static Image renderAvatar(Image picture) {
+        ImageView imageView = new ImageView(picture);
+        imageView.setFitWidth(AVATAR_SIZE);
+        imageView.setFitHeight(AVATAR_SIZE);
+        imageView.setPreserveRatio(true);
+        imageView.setSmooth(true);
+        double radius = AVATAR_SIZE / 2;
+        imageView.setClip(new Circle(radius, radius, radius));
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        parameters.setTransform(Transform.scale(AVATAR_RENDER_SCALE, AVATAR_RENDER_SCALE));
+        return imageView.snapshot(parameters, null);
+    }
+}
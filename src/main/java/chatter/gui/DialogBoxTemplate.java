@@ -0,0 +1,74 @@
+package chatter.gui;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.control.Label;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+
+/**
+ * Layout of a {@link DialogBox}, parsed from {@code /view/DialogBox.fxml} once and then stamped
+ * onto every new dialog box, so that creating a dialog box does not parse any XML.
+ * Only the properties copied by {@link #applyTo} are taken from the FXML file.
+ */
+class DialogBoxTemplate {
+    /** The one template, parsed when the first dialog box is created */
+    private static DialogBoxTemplate instance;
+
+    /** Root of the parsed layout */
+    private final HBox root = new HBox();
+
+    /** Label of the parsed layout */
+    @FXML
+    private Label dialog;
+
+    /** ImageView of the parsed layout */
+    @FXML
+    private ImageView displayPicture;
+
+    private DialogBoxTemplate() {
+        try {
+            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
+            fxmlLoader.setController(this);
+            fxmlLoader.setRoot(root);
+            fxmlLoader.load();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the template, parsing the FXML file on first use.
+     *
+     * @return the dialog box template
+     */
+    static synchronized DialogBoxTemplate get() {
+        if (instance == null) {
+            instance = new DialogBoxTemplate();
+        }
+        return instance;
+    }
+
+    /**
+     * Copies the parsed layout onto a new dialog box and its children.
+     *
+     * @param box the dialog box
+     * @param label the label for the dialog text
+     * @param picture the view for the speaker's avatar
+     */
+    void applyTo(HBox box, Label label, ImageView picture) {
+        box.setAlignment(root.getAlignment());
+        box.setMaxSize(root.getMaxWidth(), root.getMaxHeight());
+        box.setPrefWidth(root.getPrefWidth());
+        box.setPadding(root.getPadding());
+        label.setWrapText(dialog.isWrapText());
+        label.setMinHeight(dialog.getMinHeight());
+        picture.setFitWidth(displayPicture.getFitWidth());
+        picture.setFitHeight(displayPicture.getFitHeight());
+        picture.setPickOnBounds(displayPicture.isPickOnBounds());
+        picture.setPreserveRatio(displayPicture.isPreserveRatio());
+    }
+}
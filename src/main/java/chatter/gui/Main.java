@@ -14,7 +14,19 @@ import javafx.stage.Stage;
  */
 public class Main extends Application {
     /** The core Chatter instance used by the GUI. */
-    private Chatter chatter = new Chatter("data/tasks.txt");
+    private Chatter chatter;
+
+    /** Runs the user's commands off the JavaFX Application Thread. */
+    private CommandRunner commandRunner;
+
+    /**
+     * Loads the task file on the launcher thread, before the JavaFX Application Thread starts.
+     */
+    @Override
+    public void init() {
+        chatter = new Chatter(Chatter.DEFAULT_FILE_PATH);
+        commandRunner = new CommandRunner(chatter);
+    }
 
     @Override
     public void start(Stage stage) {
@@ -24,10 +36,16 @@ public class Main extends Application {
             Scene scene = new Scene(ap);
             stage.setTitle("Chatter");
             stage.setScene(scene);
-            fxmlLoader.<MainWindow>getController().setChatter(chatter); // inject the Chatter instance
+            fxmlLoader.<MainWindow>getController().setCommandRunner(commandRunner); // inject the command runner
             stage.show();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void stop() {
+        commandRunner.shutdown();
+        chatter.close();
+    }
 }
@@ -1,29 +1,30 @@
 package chatter.gui;
 
-import chatter.ui.Chatter;
+import java.util.ArrayList;
+import java.util.List;
+
 import javafx.animation.PauseTransition;
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 import javafx.util.Duration;
 
 /**
  * Controller for the main GUI.
  */
 public class MainWindow extends AnchorPane {
-    /** Scroll pane that wraps the dialog container. */
-    @FXML
-    private ScrollPane scrollPane;
+    /** Largest number of lines of a reply shown in one list cell. */
+    private static final int RESPONSE_PART_LINES = 40;
 
-    /** Container holding all dialog boxes. */
+    /** Virtualized list showing the chat transcript. */
     @FXML
-    private VBox dialogContainer;
+    private ListView<Message> transcript;
 
     /** Text field for user input. */
     @FXML
@@ -33,55 +34,76 @@ public class MainWindow extends AnchorPane {
     @FXML
     private Button sendButton;
 
-    /** Chatter instance for generating responses. */
-    private Chatter chatter;
+    /** Every message of the session, in the order it was sent. */
+    private final ObservableList<Message> messages = FXCollections.observableArrayList();
+
+    /** Runs the user's commands and delivers Chatter's responses. */
+    private CommandRunner commandRunner;
 
-    /** User avatar image. */
-    private Image userImage = new Image(this.getClass().getResourceAsStream("/images/DaUser.png"));
+    /** User avatar image, rendered once and shared by every dialog box. */
+    private Image userImage;
 
-    /** Chatter avatar image. */
-    private Image chatterImage = new Image(this.getClass().getResourceAsStream("/images/DaChatter.png"));
+    /** Chatter avatar image, rendered once and shared by every dialog box. */
+    private Image chatterImage;
 
     /**
      * Initializes the main window after the FXML is loaded.
      * <p>
-     * Binds the vertical scroll value of the scroll pane to the height of
-     * the dialog container so the view automatically scrolls down when new
-     * dialog boxes are added.
+     * Backs the transcript with the message list. The transcript only creates dialog boxes for
+     * the messages that are visible and reuses them while scrolling, so its scene graph stays
+     * the same size however long the session is.
      * </p>
      */
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        userImage = DialogBox.renderAvatar(new Image(this.getClass().getResourceAsStream("/images/DaUser.png")));
+        chatterImage = DialogBox.renderAvatar(
+                new Image(this.getClass().getResourceAsStream("/images/DaChatter.png")));
+        transcript.setItems(messages);
+        transcript.setCellFactory(listView -> new MessageCell(listView, userImage, chatterImage));
     }
 
-    /** Injects the Chatter instance */
-    public void setChatter(Chatter c) {
-        chatter = c;
+    /** Injects the command runner */
+    void setCommandRunner(CommandRunner runner) {
+        commandRunner = runner;
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Chatter's reply
-     * and then appends them to the dialog container. Clears the user input after processing.
+     * Submits the user input to the command runner and clears it. Once Chatter has replied,
+     * appends the user input and Chatter's reply to the transcript and scrolls down to them.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = chatter.getResponse(input);
-        ImageView userPicView = new ImageView(userImage);
-        DialogBox.styleProfilePic(userPicView);
-        ImageView chatterPicView = new ImageView(chatterImage);
-        DialogBox.styleProfilePic(chatterPicView);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userPicView),
-                DialogBox.getChatterDialog(response, chatterPicView)
-        );
+        commandRunner.submit(input, response -> showExchange(input, response));
+        userInput.clear();
+    }
+
+    /**
+     * Appends the user input and Chatter's reply to the transcript. A long reply is split into parts
+     * of at most {@link #RESPONSE_PART_LINES} lines, so that the transcript only lays out the parts
+     * that are visible, and is scrolled to its start rather than its end.
+     */
+    private void showExchange(String input, String response) {
+        int firstIndex = messages.size();
+        List<Message> exchange = new ArrayList<>();
+        exchange.add(new Message(input, true));
+        int partStart = 0;
+        int lines = 0;
+        for (int i = 0; i < response.length(); i++) {
+            if (response.charAt(i) == '\n' && ++lines == RESPONSE_PART_LINES) {
+                exchange.add(new Message(response.substring(partStart, i), false, partStart == 0, false));
+                partStart = i + 1;
+                lines = 0;
+            }
+        }
+        exchange.add(new Message(response.substring(partStart), false, partStart == 0, true));
+        messages.addAll(exchange);
+        transcript.scrollTo(exchange.size() > 2 ? firstIndex : messages.size() - 1);
         if (input.equals("bye")) {
             PauseTransition delay = new PauseTransition(Duration.seconds(1));
             delay.setOnFinished(event -> Platform.exit());
             delay.play();
         }
-        userInput.clear();
     }
 }
-
@@ -0,0 +1,60 @@
+package chatter.gui;
+
+/**
+ * One message of the chat transcript, as sent by the user or by Chatter.
+ * A long message is split into several parts, each shown in its own list cell.
+ */
+class Message {
+    /** Text of the message */
+    private final String text;
+
+    /** Whether the user sent the message, rather than Chatter */
+    private final boolean isFromUser;
+
+    /** Whether this is the first part of the message */
+    private final boolean isFirstPart;
+
+    /** Whether this is the last part of the message */
+    private final boolean isLastPart;
+
+    /**
+     * Constructs a {@code Message} that is not split into parts.
+     *
+     * @param text the text of the message
+     * @param isFromUser {@code true} if the user sent the message
+     */
+    Message(String text, boolean isFromUser) {
+        this(text, isFromUser, true, true);
+    }
+
+    /**
+     * Constructs one part of a {@code Message}.
+     *
+     * @param text the text of this part
+     * @param isFromUser {@code true} if the user sent the message
+     * @param isFirstPart {@code true} if this is the first part of the message
+     * @param isLastPart {@code true} if this is the last part of the message
+     */
+    Message(String text, boolean isFromUser, boolean isFirstPart, boolean isLastPart) {
+        this.text = text;
+        this.isFromUser = isFromUser;
+        this.isFirstPart = isFirstPart;
+        this.isLastPart = isLastPart;
+    }
+
+    String getText() {
+        return text;
+    }
+
+    boolean isFromUser() {
+        return isFromUser;
+    }
+
+    boolean isFirstPart() {
+        return isFirstPart;
+    }
+
+    boolean isLastPart() {
+        return isLastPart;
+    }
+}
@@ -0,0 +1,57 @@
+package chatter.gui;
+
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+
+/**
+ * List cell that shows a {@link Message} in a {@link DialogBox}.
+ * The list view only creates enough cells to fill its viewport and reuses them while scrolling,
+ * so each cell owns a single dialog box that is updated with whichever message it shows.
+ */
+class MessageCell extends ListCell<Message> {
+    /** Width reserved for the list view's vertical scroll bar */
+    private static final double SCROLL_BAR_WIDTH = 20;
+
+    /** Dialog box reused for every message this cell shows */
+    private final DialogBox dialogBox = DialogBox.create();
+
+    /** Avatar shown next to the user's messages */
+    private final Image userImage;
+
+    /** Avatar shown next to Chatter's messages */
+    private final Image chatterImage;
+
+    /**
+     * Constructs a {@code MessageCell} whose dialog box follows the width of {@code listView}.
+     *
+     * @param listView the list view the cell belongs to
+     * @param userImage the user's avatar
+     * @param chatterImage Chatter's avatar
+     */
+    MessageCell(ListView<Message> listView, Image userImage, Image chatterImage) {
+        this.userImage = userImage;
+        this.chatterImage = chatterImage;
+        dialogBox.prefWidthProperty().bind(listView.widthProperty().subtract(SCROLL_BAR_WIDTH));
+        setPrefWidth(0);
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        setStyle("-fx-background-color: transparent; -fx-padding: 0;");
+    }
+
+    @Override
+    protected void updateItem(Message message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        if (isEmpty || message == null) {
+            setGraphic(null);
+            return;
+        }
+        if (message.isFromUser()) {
+            dialogBox.showUserDialog(message.getText(), userImage);
+        } else {
+            dialogBox.showChatterDialog(message.getText(), chatterImage);
+        }
+        dialogBox.showAsPart(message.isFirstPart(), message.isLastPart());
+        setGraphic(dialogBox);
+    }
+}
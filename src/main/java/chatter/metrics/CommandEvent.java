@@ -0,0 +1,47 @@
+package chatter.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for a command run while {@link Metrics} are on, spanning the whole command.
+ */
+@Name("chatter.Command")
+@Label("Command")
+@Category("Chatter")
+@Description("A command run by a Chatter session")
+class CommandEvent extends Event {
+    @Label("Command Word")
+    private String command;
+
+    @Label("Render Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long renderNanos;
+
+    @Label("Storage Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long storageNanos;
+
+    @Label("Task Count")
+    private long taskCount;
+
+    /**
+     * Fills in the fields of the event and commits it.
+     *
+     * @param command the command word
+     * @param renderNanos time spent rendering during the command, in nanoseconds
+     * @param storageNanos time spent in the storage during the command, in nanoseconds
+     * @param taskCount number of tasks after the command
+     */
+    void commit(String command, long renderNanos, long storageNanos, long taskCount) {
+        this.command = command;
+        this.renderNanos = renderNanos;
+        this.storageNanos = storageNanos;
+        this.taskCount = taskCount;
+        commit();
+    }
+}
@@ -0,0 +1,144 @@
+package chatter.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations in nanoseconds, safe to record into from any number of threads.
+ * <p>
+ * Each power of two is split into {@value #SUB_BUCKETS} buckets of equal width, so percentiles are
+ * accurate to within an eighth of the value, whatever its magnitude, in a fixed few kilobytes.
+ * The buckets are only allocated once the first duration is recorded.
+ * </p>
+ */
+public class LatencyHistogram {
+    /** Number of buckets each power of two is split into */
+    private static final int SUB_BUCKETS = 8;
+
+    /** Base-2 logarithm of {@link #SUB_BUCKETS} */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /** Number of buckets needed for every non-negative {@code long} */
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    /** Number of durations recorded in each bucket, or {@code null} until the first is recorded */
+    private volatile AtomicLongArray buckets;
+
+    /** Number of durations recorded */
+    private final LongAdder count = new LongAdder();
+
+    /** Sum of the durations recorded */
+    private final LongAdder totalNanos = new LongAdder();
+
+    /** Longest duration recorded */
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a duration. Negative durations, which a clock adjustment could produce, are recorded as 0.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        AtomicLongArray counts = buckets;
+        if (counts == null) {
+            counts = allocateBuckets();
+        }
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the mean of the durations recorded, or 0 if there are none.
+     *
+     * @return the mean duration in nanoseconds
+     */
+    public double getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) totalNanos.sum() / n;
+    }
+
+    /**
+     * Returns an estimate of the duration that {@code percentile} percent of the recorded durations do not exceed,
+     * or 0 if there are none. Concurrent recording may make the estimate slightly off.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the estimated duration in nanoseconds, at most the longest one recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        long n = count.sum();
+        AtomicLongArray counts = buckets;
+        if (n == 0 || counts == null) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(n * percentile / 100));
+        if (rank >= n) {
+            return maxNanos.get();
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(midpointOf(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * Forgets every duration recorded so far.
+     */
+    public void reset() {
+        AtomicLongArray counts = buckets;
+        for (int i = 0; counts != null && i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    private synchronized AtomicLongArray allocateBuckets() {
+        if (buckets == null) {
+            buckets = new AtomicLongArray(BUCKET_COUNT);
+        }
+        return buckets;
+    }
+
+    /**
+     * Returns the bucket of {@code value}: values below {@link #SUB_BUCKETS} have a bucket each, and larger ones
+     * share a bucket with those that have the same highest bit and the same {@link #SUB_BUCKET_BITS} bits below it.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static long midpointOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + ((1L << shift) >>> 1);
+    }
+}
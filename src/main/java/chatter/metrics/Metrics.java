@@ -0,0 +1,261 @@
+package chatter.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.ToDoubleFunction;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters, latency histograms and gauges of one Chatter session.
+ * <p>
+ * Each command is counted and timed by its command word, and its time is broken down into {@link Phase}s.
+ * The task count and size of the task file are read through gauges when a report is made.
+ * Metrics are off until {@link #setEnabled(boolean)} turns them on; while off, {@link #start()} and
+ * {@link #record(Phase, long)} only read a field, and nothing is allocated.
+ * </p>
+ * <p>
+ * The metrics can be published as an MXBean, and while they are on every command is also
+ * emitted as a {@code chatter.Command} Flight Recorder event.
+ * </p>
+ */
+public class Metrics implements MetricsMXBean {
+    /** Returned by {@link #start()} while metrics are off */
+    private static final long NOT_TIMED = 0;
+
+    /** Nanoseconds in a microsecond */
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    /** Whether commands are being timed */
+    private volatile boolean isEnabled;
+
+    /** Latencies of whole commands by command word */
+    private final Map<String, LatencyHistogram> commands = new ConcurrentHashMap<>();
+
+    /** Latencies of each phase, across all commands */
+    private final Map<Phase, LatencyHistogram> phases = new EnumMap<>(Phase.class);
+
+    /** Number of tasks in the list */
+    private LongSupplier taskCount = () -> 0;
+
+    /** Size of the task file and its journal on disk, in bytes */
+    private LongSupplier fileSize = () -> 0;
+
+    /** Name the metrics are published under, or {@code null} if they are not */
+    private ObjectName objectName;
+
+    /**
+     * Constructs {@code Metrics} that are off.
+     */
+    public Metrics() {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new LatencyHistogram());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    @Override
+    public void setEnabled(boolean isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+
+    /**
+     * Sets the gauges read when a report is made.
+     *
+     * @param taskCount supplies the number of tasks in the list
+     * @param fileSize supplies the size of the task file and its journal, in bytes
+     */
+    public void setGauges(LongSupplier taskCount, LongSupplier fileSize) {
+        this.taskCount = taskCount;
+        this.fileSize = fileSize;
+    }
+
+    /**
+     * Returns the time to pass to {@link #record(Phase, long)} at the end of a phase.
+     *
+     * @return the current {@link System#nanoTime()}, or a value that records nothing while metrics are off
+     */
+    public long start() {
+        return isEnabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Records that {@code phase} ran from {@code start} until now.
+     *
+     * @param phase the phase that ended
+     * @param start the value {@link #start()} returned when the phase began
+     */
+    public void record(Phase phase, long start) {
+        if (start != NOT_TIMED) {
+            phases.get(phase).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Starts timing a command. Should only be called while metrics are on.
+     *
+     * @param command the command word of the command
+     * @return the timer to {@linkplain CommandTimer#finish() finish} once the command has been answered
+     */
+    public CommandTimer startCommand(String command) {
+        return new CommandTimer(command);
+    }
+
+    /**
+     * Forgets every count and latency recorded so far.
+     */
+    public void reset() {
+        commands.clear();
+        for (LatencyHistogram histogram : phases.values()) {
+            histogram.reset();
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCommandCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        commands.forEach((command, histogram) -> counts.put(command, histogram.getCount()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getMeanMicros() {
+        return summarize(LatencyHistogram::getMeanNanos);
+    }
+
+    @Override
+    public Map<String, Double> getP99Micros() {
+        return summarize(histogram -> histogram.getPercentileNanos(99));
+    }
+
+    @Override
+    public long getTaskCount() {
+        return taskCount.getAsLong();
+    }
+
+    @Override
+    public long getFileSizeBytes() {
+        return fileSize.getAsLong();
+    }
+
+    /**
+     * Publishes these metrics to the platform MBean server under {@code chatter:type=Metrics,file=<file>},
+     * unless other metrics are already published for the same file.
+     *
+     * @param file the task file of the session the metrics belong to
+     */
+    public synchronized void register(String file) {
+        try {
+            ObjectName name = new ObjectName("chatter:type=Metrics,file=" + ObjectName.quote(file));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+        } catch (JMException e) {
+            // Another session of the same file is already published; these metrics are still reported by stats.
+        }
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server, if they were published.
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            // Already removed.
+        }
+        objectName = null;
+    }
+
+    /**
+     * Returns a table of the counts and latencies recorded so far, followed by the gauges.
+     *
+     * @return the report, one line per command word and phase, each indented by three spaces
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (!isEnabled) {
+            sb.append("   Metrics are off; use 'stats on' to start collecting them.\n");
+        }
+        sb.append(String.format("   %-14s %8s %10s %10s %10s %10s\n", "(microseconds)", "count", "mean", "p50",
+                "p99", "max"));
+        new TreeMap<>(commands).forEach((command, histogram) -> appendRow(sb, command, histogram));
+        for (Phase phase : Phase.values()) {
+            appendRow(sb, phase.getLabel(), phases.get(phase));
+        }
+        sb.append("   Tasks: ").append(getTaskCount()).append('\n');
+        sb.append("   Task file size: ").append(getFileSizeBytes()).append(" bytes");
+        return sb.toString();
+    }
+
+    private static void appendRow(StringBuilder sb, String name, LatencyHistogram histogram) {
+        sb.append(String.format("   %-14s %8d %10.1f %10.1f %10.1f %10.1f\n", name, histogram.getCount(),
+                histogram.getMeanNanos() / NANOS_PER_MICRO, histogram.getPercentileNanos(50) / NANOS_PER_MICRO,
+                histogram.getPercentileNanos(99) / NANOS_PER_MICRO, histogram.getMaxNanos() / NANOS_PER_MICRO));
+    }
+
+    private Map<String, Double> summarize(ToDoubleFunction<LatencyHistogram> statistic) {
+        Map<String, Double> summary = new TreeMap<>();
+        commands.forEach((command, histogram) ->
+                summary.put(command, statistic.applyAsDouble(histogram) / NANOS_PER_MICRO));
+        for (Phase phase : Phase.values()) {
+            summary.put(phase.getLabel(), statistic.applyAsDouble(phases.get(phase)) / NANOS_PER_MICRO);
+        }
+        return summary;
+    }
+
+    /**
+     * Times one command, attributing the part of it not spent rendering or in the storage to {@link Phase#EXECUTE}.
+     */
+    public class CommandTimer {
+        /** Command word of the command */
+        private final String command;
+
+        /** Time the command started, as given by {@link System#nanoTime()} */
+        private final long start;
+
+        /** Time spent rendering before the command started, in nanoseconds */
+        private final long renderBefore;
+
+        /** Time spent in the storage before the command started, in nanoseconds */
+        private final long storageBefore;
+
+        /** Flight Recorder event spanning the command */
+        private final CommandEvent event = new CommandEvent();
+
+        private CommandTimer(String command) {
+            this.command = command;
+            this.renderBefore = phases.get(Phase.RENDER).getTotalNanos();
+            this.storageBefore = phases.get(Phase.STORAGE).getTotalNanos();
+            event.begin();
+            this.start = System.nanoTime();
+        }
+
+        /**
+         * Records the command as finished now.
+         */
+        public void finish() {
+            long elapsed = System.nanoTime() - start;
+            long render = phases.get(Phase.RENDER).getTotalNanos() - renderBefore;
+            long storage = phases.get(Phase.STORAGE).getTotalNanos() - storageBefore;
+            commands.computeIfAbsent(command, c -> new LatencyHistogram()).record(elapsed);
+            phases.get(Phase.EXECUTE).record(elapsed - render - storage);
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit(command, render, storage, taskCount.getAsLong());
+            }
+        }
+    }
+}
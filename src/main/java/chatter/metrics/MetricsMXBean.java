@@ -0,0 +1,58 @@
+package chatter.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface through which JMX clients read the {@link Metrics} of a Chatter session
+ * and turn their collection on or off.
+ */
+public interface MetricsMXBean {
+    /**
+     * Returns whether commands are currently being timed.
+     *
+     * @return {@code true} if metrics are collected
+     */
+    boolean isEnabled();
+
+    /**
+     * Turns the timing of commands on or off.
+     *
+     * @param isEnabled whether to collect metrics
+     */
+    void setEnabled(boolean isEnabled);
+
+    /**
+     * Returns the number of commands timed, by command word.
+     *
+     * @return the command counts
+     */
+    Map<String, Long> getCommandCounts();
+
+    /**
+     * Returns the mean time taken by each command word and phase, in microseconds.
+     *
+     * @return the mean latencies
+     */
+    Map<String, Double> getMeanMicros();
+
+    /**
+     * Returns the 99th percentile of the time taken by each command word and phase, in microseconds.
+     *
+     * @return the 99th percentile latencies
+     */
+    Map<String, Double> getP99Micros();
+
+    /**
+     * Returns the number of tasks in the list.
+     *
+     * @return the task count
+     */
+    long getTaskCount();
+
+    /**
+     * Returns the size of the task file and its journal on disk.
+     *
+     * @return the size in bytes
+     */
+    long getFileSizeBytes();
+}
@@ -0,0 +1,32 @@
+package chatter.metrics;
+
+/**
+ * Parts of the work done for commands that {@link Metrics} times separately.
+ */
+public enum Phase {
+    /**
+     * Reading the arguments of a command and applying it to the task list. The parser does both in a single
+     * pass, so they are timed together, as whatever time of the command is not spent in the other phases.
+     */
+    EXECUTE("parse+execute"),
+
+    /** Formatting tasks into a response. */
+    RENDER("render"),
+
+    /** Handing changes to the storage on the thread running the command, including any write it waits for. */
+    STORAGE("storage"),
+
+    /** Writing to the task file or its journal, on whichever thread performs the write. */
+    SAVE("save");
+
+    /** Name of the phase in reports */
+    private final String label;
+
+    Phase(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
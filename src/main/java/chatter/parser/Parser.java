@@ -1,10 +1,17 @@
 package chatter.parser;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.BitSet;
+import java.util.List;
 
 import chatter.exception.ChatterException;
+import chatter.metrics.Metrics;
 import chatter.storage.Storage;
 import chatter.task.Deadline;
 import chatter.task.Event;
@@ -16,12 +23,41 @@ import chatter.ui.Ui;
 /**
  * Interprets user input commands and executes
  * the corresponding operations on the task list.
+ * <p>
+ * The input is read in a single pass, without regular expressions: the command word is looked up
+ * in a precomputed table, and each command reads its content straight from the input string,
+ * only creating substrings for text that ends up in a task or a date.
+ * </p>
  */
 public class Parser {
+    /** Content offset passed to commands when the command word is not followed by a space */
+    private static final int NO_CONTENT = -1;
+
+    /** Returned by {@link #parseInt} when the text is not a valid {@code int} */
+    private static final long NOT_AN_INT = Long.MIN_VALUE;
+
+    /** Formatter for parsing dates in date queries */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    /** Separator between a deadline's description and its due date */
+    private static final String BY = " /by ";
+
+    /** Separator between an event's description and its start */
+    private static final String FROM = " /from ";
+
+    /** Separator between an event's start and its end */
+    private static final String TO = " /to ";
+
+    /** Selection of every task that is done */
+    private static final String DONE_SELECTION = "done";
+
+    /** Word starting a selection of the tasks matching a search */
+    private static final String FIND_SELECTION = "find";
 
     /**
      * Parses the given user input, performs the corresponding action
      * on the {@link TaskList}, updates the {@link Storage}, and interacts with the {@link Ui}.
+     * Nothing can be undone.
      *
      * @param input The input string entered by the user.
      * @param tasks The {@code TaskList} that stores all current tasks.
@@ -31,50 +67,386 @@ public class Parser {
      * @throws ChatterException If the command is invalid or has incorrect format.
      */
     public static String parse(String input, TaskList tasks, Ui ui, Storage storage) throws ChatterException {
+        return parse(input, tasks, ui, storage, UndoHistory.NONE);
+    }
+
+    /**
+     * Parses the given user input, performs the corresponding action
+     * on the {@link TaskList}, updates the {@link Storage}, and interacts with the {@link Ui}.
+     * Commands that change the list are recorded in {@code history}, so that {@code undo} can reverse them.
+     *
+     * @param input The input string entered by the user.
+     * @param tasks The {@code TaskList} that stores all current tasks.
+     * @param ui The {@code Ui} object used to display messages to the user.
+     * @param storage The {@code Storage} object used to persist changes.
+     * @param history The {@code UndoHistory} of the commands run on {@code tasks}.
+     * @return Response message string for user's query.
+     * @throws ChatterException If the command is invalid or has incorrect format.
+     */
+    public static String parse(String input, TaskList tasks, Ui ui, Storage storage, UndoHistory history)
+            throws ChatterException {
+        int space = input.indexOf(' ');
+        int commandEnd = space < 0 ? input.length() : space;
+        int start = space < 0 ? NO_CONTENT : space + 1;
 
-        String[] parts = input.split(" ", 2);
-        String command = parts[0];
-
-        switch (command) {
-        case "bye":
-            return ByeCommand.execute(parts, ui);
-        case "list":
-            return ListCommand.execute(parts, tasks, ui);
-        case "todo":
-            return TodoCommand.execute(parts, tasks, storage, ui);
-        case "deadline":
-            return DeadlineCommand.execute(parts, tasks, storage, ui);
-        case "event":
-            return EventCommand.execute(parts, tasks, storage, ui);
-        case "delete":
-            return DeleteCommand.execute(parts, tasks, storage, ui);
-        case "mark":
-            return MarkCommand.execute(parts, tasks, storage, ui);
-        case "unmark":
-            return UnmarkCommand.execute(parts, tasks, storage, ui);
-        case "on":
-            return OnCommand.execute(parts, tasks, ui);
-        case "find":
-            return FindCommand.execute(parts, tasks, ui);
+        switch (CommandWord.lookup(input, commandEnd)) {
+        case BYE:
+            return ByeCommand.execute(start, storage, ui);
+        case LIST:
+            return ListCommand.execute(input, start, tasks, ui);
+        case TODO:
+            return TodoCommand.execute(input, start, tasks, storage, history, ui);
+        case DEADLINE:
+            return DeadlineCommand.execute(input, start, tasks, storage, history, ui);
+        case EVENT:
+            return EventCommand.execute(input, start, tasks, storage, history, ui);
+        case DELETE:
+            return DeleteCommand.execute(input, start, tasks, storage, history, ui);
+        case MARK:
+            return MarkCommand.execute(input, start, tasks, storage, history, ui);
+        case UNMARK:
+            return UnmarkCommand.execute(input, start, tasks, storage, history, ui);
+        case ON:
+            return OnCommand.execute(input, start, tasks, ui);
+        case BETWEEN:
+            return BetweenCommand.execute(input, start, tasks, ui);
+        case FIND:
+            return FindCommand.execute(input, start, tasks, ui);
+        case IMPORT:
+            return ImportCommand.execute(input, start, tasks, storage, history, ui);
+        case STATS:
+            return StatsCommand.execute(input, start, ui);
+        case UNDO:
+            return UndoCommand.execute(start, tasks, storage, history, ui);
+        case REDO:
+            return RedoCommand.execute(start, tasks, storage, history, ui);
         default:
             throw new ChatterException("SORRY! I am not qualified to do this!");
         }
     }
 
+    /**
+     * Returns the command word {@code input} starts with, or {@code "unknown"} if it is not a command.
+     * Used to group the metrics of commands without keeping what the user typed.
+     *
+     * @param input The input string entered by the user.
+     * @return The command word.
+     */
+    public static String getCommandWord(String input) {
+        int space = input.indexOf(' ');
+        CommandWord word = CommandWord.lookup(input, space < 0 ? input.length() : space);
+        return word == CommandWord.UNKNOWN ? "unknown" : word.keyword;
+    }
+
+    /**
+     * Runs {@code commands} as a single unit: their changes are persisted together once every command
+     * has succeeded, and all of them are undone if any command fails. Blank lines are skipped.
+     * The batch cannot be undone.
+     *
+     * @param commands The commands to run, one per element.
+     * @param tasks The {@code TaskList} that stores all current tasks.
+     * @param ui The {@code Ui} object used to display messages to the user.
+     * @param storage The {@code Storage} object used to persist changes.
+     * @return Summary of the batch.
+     * @throws ChatterException If a command fails, naming the command; no changes are kept in that case.
+     */
+    public static String parseBatch(List<String> commands, TaskList tasks, Ui ui, Storage storage)
+            throws ChatterException {
+        return parseBatch(commands, tasks, ui, storage, UndoHistory.NONE);
+    }
+
+    /**
+     * Runs {@code commands} as a single unit: their changes are persisted together once every command
+     * has succeeded, and all of them are undone if any command fails. Blank lines are skipped.
+     * If the batch changes the list, it is recorded in {@code history} as one command.
+     *
+     * @param commands The commands to run, one per element.
+     * @param tasks The {@code TaskList} that stores all current tasks.
+     * @param ui The {@code Ui} object used to display messages to the user.
+     * @param storage The {@code Storage} object used to persist changes.
+     * @param history The {@code UndoHistory} of the commands run on {@code tasks}.
+     * @return Summary of the batch.
+     * @throws ChatterException If a command fails, naming the command; no changes are kept in that case.
+     */
+    public static String parseBatch(List<String> commands, TaskList tasks, Ui ui, Storage storage,
+            UndoHistory history) throws ChatterException {
+        int count = 0;
+        boolean isCommitted = false;
+        tasks.beginTransaction();
+        try {
+            storage.beginBatch();
+            history.beginBatch();
+            for (int i = 0; i < commands.size(); i++) {
+                String command = commands.get(i);
+                if (command.isBlank()) {
+                    continue;
+                }
+                try {
+                    String word = getCommandWord(command);
+                    if (word.equals("import") || word.equals("undo") || word.equals("redo")) {
+                        throw new ChatterException(word + " cannot be used inside a batch!");
+                    }
+                    parse(command, tasks, ui, storage, history);
+                    count++;
+                } catch (ChatterException e) {
+                    throw new ChatterException("Line " + (i + 1) + " (" + command + ") failed: " + e.getMessage()
+                            + "\n   None of the commands were applied.");
+                }
+            }
+            tasks.commit();
+            isCommitted = true;
+        } finally {
+            if (!isCommitted) {
+                tasks.rollback();
+                storage.abortBatch();
+                history.abortBatch();
+            }
+        }
+        storage.commitBatch(tasks);
+        history.commitBatch("batch of " + count + (count == 1 ? " command" : " commands"));
+        return ui.showBatchDone(count, tasks.getSize());
+    }
+
+    /**
+     * Parses {@code s[from, to)} exactly as {@link Integer#parseInt(String)} would,
+     * but reports invalid text by returning {@link #NOT_AN_INT} instead of throwing.
+     */
+    private static long parseInt(String s, int from, int to) {
+        if (from >= to) {
+            return NOT_AN_INT;
+        }
+        boolean isNegative = s.charAt(from) == '-';
+        if (isNegative || s.charAt(from) == '+') {
+            from++;
+            if (from == to) {
+                return NOT_AN_INT;
+            }
+        }
+        long limit = isNegative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(s.charAt(i), 10);
+            if (digit < 0) {
+                return NOT_AN_INT;
+            }
+            value = value * 10 + digit;
+            if (value > limit) {
+                return NOT_AN_INT;
+            }
+        }
+        return isNegative ? -value : value;
+    }
+
+    /**
+     * Parses the task number that makes up the whole content of a command, returning its index.
+     */
+    private static int parseTaskIndex(String input, int start) throws ChatterException {
+        if (start == NO_CONTENT) {
+            throw new ChatterException("Provide index!");
+        }
+        long number = parseInt(input, start, input.length());
+        if (number == NOT_AN_INT) {
+            throw new ChatterException("Task number must be an integer!");
+        }
+        return (int) number - 1;
+    }
+
+    /**
+     * Returns whether the content of a command selects any number of tasks rather than naming a single
+     * task number: numbers and ranges such as {@code 1,4,9-20}, {@code done}, or {@code find <words>}.
+     * Content ending in whitespace is not a selection, so that it is rejected as a task number as it always was.
+     */
+    private static boolean isSelection(String input, int start) {
+        if (start == NO_CONTENT || start == input.length() || parseInt(input, start, input.length()) != NOT_AN_INT
+                || trimEnd(input, start, input.length()) < input.length()) {
+            return false;
+        }
+        return Character.isDigit(input.charAt(start)) || isWord(input, start, DONE_SELECTION)
+                || isWord(input, start, FIND_SELECTION) || input.startsWith(FIND_SELECTION + " ", start);
+    }
+
+    /**
+     * Returns the indexes of the tasks selected by the content of a command, as accepted by {@link #isSelection}.
+     */
+    private static BitSet selectTasks(String input, int start, TaskList tasks) throws ChatterException {
+        if (isWord(input, start, DONE_SELECTION)) {
+            return tasks.selectDone();
+        }
+        if (input.startsWith(FIND_SELECTION, start)) {
+            if (isWord(input, start, FIND_SELECTION)) {
+                throw new ChatterException("Please enter what you are looking for!");
+            }
+            return tasks.selectMatching(input.substring(start + FIND_SELECTION.length() + 1));
+        }
+        int size = tasks.getSize();
+        BitSet selected = new BitSet(size);
+        int end = input.length();
+        int itemStart = start;
+        while (itemStart <= end) {
+            int itemEnd = input.indexOf(',', itemStart);
+            if (itemEnd < 0) {
+                itemEnd = end;
+            }
+            int from = trimStart(input, itemStart, itemEnd);
+            int to = trimEnd(input, from, itemEnd);
+            int dash = from;
+            while (dash < to && (dash == from || input.charAt(dash) != '-')) {
+                dash++;
+            }
+            int first = parseTaskNumber(input, from, dash, size);
+            int last = dash == to ? first : parseTaskNumber(input, dash + 1, to, size);
+            if (last < first) {
+                throw new ChatterException("Range " + input.substring(from, to)
+                        + " must start with the lower task number!");
+            }
+            selected.set(first - 1, last);
+            itemStart = itemEnd + 1;
+        }
+        return selected;
+    }
+
+    /**
+     * Parses one task number of a selection, checking that the task exists.
+     */
+    private static int parseTaskNumber(String input, int from, int to, int size) throws ChatterException {
+        long number = parseInt(input, from, to);
+        if (number == NOT_AN_INT) {
+            throw new ChatterException("Task number must be an integer!");
+        }
+        if (number < 1 || number > size) {
+            throw new ChatterException("You don't have that many task!");
+        }
+        return (int) number;
+    }
+
+    /**
+     * Returns the indexes in {@code selected} of the tasks whose status would change if they were marked
+     * as done, or as not done.
+     */
+    private static BitSet selectChanging(BitSet selected, boolean isDone, TaskList tasks) throws ChatterException {
+        BitSet changing = new BitSet();
+        for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            if (tasks.get(i).isDone() != isDone) {
+                changing.set(i);
+            }
+        }
+        return changing;
+    }
+
+    /** Returns whether the content of {@code s} from {@code from} on is exactly {@code word}. */
+    private static boolean isWord(String s, int from, String word) {
+        return s.length() - from == word.length() && s.startsWith(word, from);
+    }
+
+    /** Returns the first index from {@code from} on whose character is not trimmed by {@link String#trim()}. */
+    private static int trimStart(String s, int from, int to) {
+        while (from < to && s.charAt(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    /** Returns the index just past the last character before {@code to} not trimmed by {@link String#trim()}. */
+    private static int trimEnd(String s, int from, int to) {
+        while (to > from && s.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    /** Returns the index of the next space in {@code s[from, to)}, or {@code to} if there is none. */
+    private static int nextSpace(String s, int from, int to) {
+        while (from < to && s.charAt(from) != ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    /** Returns whether {@code s} from {@code from} on is empty or whitespace, as {@link String#isBlank()}. */
+    private static boolean isBlank(String s, int from) {
+        for (int i = from; i < s.length(); i++) {
+            if (!Character.isWhitespace(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns the trimmed text of {@code s[from, to)}. */
+    private static String trimmed(String s, int from, int to) {
+        int end = trimEnd(s, from, to);
+        return s.substring(trimStart(s, from, end), end);
+    }
+
+    /**
+     * Command words, looked up with a perfect hash on their first character and length.
+     */
+    private enum CommandWord {
+        BYE("bye"), LIST("list"), TODO("todo"), DEADLINE("deadline"), EVENT("event"), DELETE("delete"),
+        MARK("mark"), UNMARK("unmark"), ON("on"), BETWEEN("between"), FIND("find"), IMPORT("import"),
+        STATS("stats"), UNDO("undo"), REDO("redo"), UNKNOWN("");
+
+        /** Table size; the hash maps every command word to a different slot */
+        private static final int SLOTS = 32;
+
+        /** Command words by hash */
+        private static final CommandWord[] TABLE = new CommandWord[SLOTS];
+
+        static {
+            for (CommandWord word : values()) {
+                if (word == UNKNOWN) {
+                    continue;
+                }
+                int slot = hash(word.keyword.charAt(0), word.keyword.length());
+                if (TABLE[slot] != null) {
+                    throw new IllegalStateException(word + " and " + TABLE[slot] + " have the same hash");
+                }
+                TABLE[slot] = word;
+            }
+        }
+
+        /** The word the user types */
+        private final String keyword;
+
+        CommandWord(String keyword) {
+            this.keyword = keyword;
+        }
+
+        /**
+         * Returns the command word that makes up {@code input[0, length)}, or {@link #UNKNOWN}.
+         */
+        static CommandWord lookup(String input, int length) {
+            if (length == 0) {
+                return UNKNOWN;
+            }
+            CommandWord word = TABLE[hash(input.charAt(0), length)];
+            if (word == null || word.keyword.length() != length || !input.startsWith(word.keyword)) {
+                return UNKNOWN;
+            }
+            return word;
+        }
+
+        private static int hash(char first, int length) {
+            return (first + 3 * length) & (SLOTS - 1);
+        }
+    }
+
     /**
      * Handles the 'bye' command.
      */
     private static class ByeCommand {
         /**
-         * Executes the 'bye' command.
+         * Executes the 'bye' command, making sure every change has been written to disk.
          *
-         * @param parts the input split into command and content
+         * @param start the index of the content after the command word, or {@code NO_CONTENT}
+         * @param storage the Storage object to flush
          * @param ui the Ui object used to generate the exit message
          * @return the exit message string
          * @throws ChatterException if the command has unexpected additional content
          */
-        public static String execute(String[] parts, Ui ui) throws ChatterException {
-            if (parts.length == 1) {
+        public static String execute(int start, Storage storage, Ui ui) throws ChatterException {
+            if (start == NO_CONTENT) {
+                storage.flush();
                 return ui.showExit();
             } else {
                 throw new ChatterException("bye command should not be followed by anything!");
@@ -86,21 +458,63 @@ public class Parser {
      * Handles the 'list' command.
      */
     private static class ListCommand {
+        /** Message shown when the command is followed by anything but a page and a page size */
+        private static final String USAGE = "list can only be followed by a page number and --page-size <size>!";
+
+        /** Option that sets the page size */
+        private static final String PAGE_SIZE_OPTION = "--page-size";
+
         /**
-         * Executes the 'list' command.
+         * Executes the 'list' command, showing one page of the task list.
+         * The page number and {@code --page-size <size>} are both optional, in either order.
          *
-         * @param parts the input split into command and content
+         * @param input the user input
+         * @param start the index of the content after the command word, or {@code NO_CONTENT}
          * @param tasks the TaskList containing all tasks
          * @param ui the Ui object used to generate the task list display
-         * @return the string representing all tasks in the task list
-         * @throws ChatterException if the command has unexpected additional content
+         * @return the string representing the page of tasks
+         * @throws ChatterException if the page or page size is not a positive integer,
+         *         or the page does not exist
          */
-        public static String execute(String[] parts, TaskList tasks, Ui ui) throws ChatterException {
-            if (parts.length == 1) {
-                return ui.showList(tasks);
-            } else {
-                throw new ChatterException("list command should not be followed by anything else!");
+        public static String execute(String input, int start, TaskList tasks, Ui ui) throws ChatterException {
+            int page = 0;
+            int pageSize = 0;
+            if (start != NO_CONTENT) {
+                int end = trimEnd(input, start, input.length());
+                int argStart = trimStart(input, start, end);
+                do {
+                    int argEnd = nextSpace(input, argStart, end);
+                    int nextArg = argEnd;
+                    while (nextArg < end && input.charAt(nextArg) == ' ') {
+                        nextArg++;
+                    }
+                    if (argEnd - argStart == PAGE_SIZE_OPTION.length() && input.startsWith(PAGE_SIZE_OPTION, argStart)
+                            && pageSize == 0 && nextArg < end) {
+                        argStart = nextArg;
+                        argEnd = nextSpace(input, argStart, end);
+                        pageSize = parsePositive(input, argStart, argEnd, "Page size must be a positive integer!");
+                        nextArg = argEnd;
+                        while (nextArg < end && input.charAt(nextArg) == ' ') {
+                            nextArg++;
+                        }
+                    } else if (page == 0 && !input.startsWith("-", argStart)) {
+                        page = parsePositive(input, argStart, argEnd, "Page number must be a positive integer!");
+                    } else {
+                        throw new ChatterException(USAGE);
+                    }
+                    argStart = nextArg;
+                } while (argStart < end);
             }
+            return ui.showList(tasks, Math.max(page, 1), pageSize == 0 ? Ui.DEFAULT_PAGE_SIZE : pageSize);
+        }
+
+        private static int parsePositive(String input, int from, int to, String errorMessage)
+                throws ChatterException {
+            long value = parseInt(input, from, to);
+            if (value == NOT_AN_INT || value < 1) {
+                throw new ChatterException(errorMessage);
+            }
+            return (int) value;
         }
     }
 
@@ -111,20 +525,24 @@ public class Parser {
         /**
          * Executes the 'todo' command.
          *
-         * @param parts the input split into command and content
+         * @param input the user input
+         * @param start the index of the content after the command word, or {@code NO_CONTENT}
          * @param tasks the TaskList to add the new ToDo task
          * @param storage the Storage object to save tasks
+         * @param history the UndoHistory to record the addition in
          * @param ui the Ui object used to generate confirmation message
          * @return the string confirming the task has been added
          * @throws ChatterException if the content (description) is missing or invalid
          */
-        public static String execute(String[] parts, TaskList tasks, Storage storage, Ui ui) throws ChatterException {
-            if (parts.length < 2 || parts[1].isBlank()) {
+        public static String execute(String input, int start, TaskList tasks, Storage storage,
+                UndoHistory history, Ui ui) throws ChatterException {
+            if (start == NO_CONTENT || isBlank(input, start)) {
                 throw new ChatterException("todoTask must have a description!");
             }
-            ToDo todoTask = new ToDo(parts[1].trim());
+            ToDo todoTask = new ToDo(trimmed(input, start, input.length()));
             tasks.add(todoTask);
-            storage.save(tasks);
+            storage.recordAdd(todoTask, tasks);
+            history.recordAdd(input, tasks.getSize() - 1, todoTask);
             return ui.showAdded(todoTask, tasks.getSize());
         }
     }
@@ -136,24 +554,29 @@ public class Parser {
         /**
          * Executes the 'deadline' command.
          *
-         * @param parts the input split into command and content
+         * @param input the user input
+         * @param start the index of the content after the command word, or {@code NO_CONTENT}
          * @param tasks the TaskList to add the new Deadline task
          * @param storage the Storage object to save tasks
+         * @param history the UndoHistory to record the addition in
          * @param ui the Ui object used to generate confirmation message
          * @return the string confirming the task has been added
          * @throws ChatterException if the content (description or /by date) is missing or invalid
          */
-        public static String execute(String[] parts, TaskList tasks, Storage storage, Ui ui) throws ChatterException {
-            if (parts.length < 2 || !parts[1].contains("/by")) {
+        public static String execute(String input, int start, TaskList tasks, Storage storage,
+                UndoHistory history, Ui ui) throws ChatterException {
+            if (start == NO_CONTENT || input.indexOf("/by", start) < 0) {
                 throw new ChatterException("deadlineTask must have description and /by!");
             }
-            String[] details = parts[1].split(" /by ", 2);
-            if (details.length == 1) {
+            int by = input.indexOf(BY, start);
+            if (by < 0) {
                 throw new ChatterException("/by must be followed by deadline in yyyy-MM-dd HHmm format!");
             }
-            Deadline deadlineTask = new Deadline(details[0].trim(), details[1].trim());
+            Deadline deadlineTask = new Deadline(trimmed(input, start, by),
+                    trimmed(input, by + BY.length(), input.length()));
             tasks.add(deadlineTask);
-            storage.save(tasks);
+            storage.recordAdd(deadlineTask, tasks);
+            history.recordAdd(input, tasks.getSize() - 1, deadlineTask);
             return ui.showAdded(deadlineTask, tasks.getSize());
         }
     }
@@ -165,32 +588,54 @@ public class Parser {
         /**
          * Executes the 'event' command.
          *
-         * @param parts the input split into command and content
+         * @param input the user input
+         * @param start the index of the content after the command word, or {@code NO_CONTENT}
          * @param tasks the TaskList to add the new Event task
          * @param storage the Storage object to save tasks
+         * @param history the UndoHistory to record the addition in
          * @param ui the Ui object used to generate confirmation message
          * @return the string confirming the task has been added
          * @throws ChatterException if the content (description, /from, or /to dates) is missing or invalid
          */
-        public static String execute(String[] parts, TaskList tasks, Storage storage, Ui ui) throws ChatterException {
-            if (parts.length < 2 || !parts[1].contains("/from") || !parts[1].contains("/to")) {
+        public static String execute(String input, int start, TaskList tasks, Storage storage,
+                UndoHistory history, Ui ui) throws ChatterException {
+            if (start == NO_CONTENT || input.indexOf("/from", start) < 0 || input.indexOf("/to", start) < 0) {
                 throw new ChatterException("eventTask must have description, /from and /to!");
             }
-            String[] fromSplit = parts[1].split(" /from ", 2);
-            if (fromSplit.length == 1) {
+            int from = input.indexOf(FROM, start);
+            if (from < 0) {
                 throw new ChatterException("eventTask must have description and "
                         + "/from must be followed by event start time in yyyy-MM-dd HHmm format!");
             }
-            String[] toSplit = fromSplit[1].split(" /to ");
-            if (toSplit.length == 1) {
+            int fromStart = from + FROM.length();
+            int to = input.indexOf(TO, fromStart);
+            if (to < 0 || isRepeatedSeparator(input, to)) {
                 throw new ChatterException("/from and /to must be followed by "
                         + "event start and end time in yyyy-MM-dd HHmm format respectively!");
             }
-            Event eventTask = new Event(fromSplit[0].trim(), toSplit[0].trim(), toSplit[1].trim());
+            int toStart = to + TO.length();
+            int toEnd = input.indexOf(TO, toStart);
+            Event eventTask = new Event(trimmed(input, start, from), trimmed(input, fromStart, to),
+                    trimmed(input, toStart, toEnd < 0 ? input.length() : toEnd));
             tasks.add(eventTask);
-            storage.save(tasks);
+            storage.recordAdd(eventTask, tasks);
+            history.recordAdd(input, tasks.getSize() - 1, eventTask);
             return ui.showAdded(eventTask, tasks.getSize());
         }
+
+        /**
+         * Returns whether the input from {@code index} on consists only of {@code " /to "} repeated,
+         * in which case there is no end time after any of the separators.
+         */
+        private static boolean isRepeatedSeparator(String input, int index) {
+            while (index < input.length()) {
+                if (!input.startsWith(TO, index)) {
+                    return false;
+                }
+                index += TO.length();
+            }
+            return true;
+        }
     }
 
     /**
@@ -198,28 +643,37 @@ public class Parser {
      */
     private static class DeleteCommand {
         /**
-         * Executes the 'delete' command.
+         * Executes the 'delete' command on one task, or on every selected task in a single pass
+         * that is persisted once.
          *
-         * @param parts the input split into command and content
+         * @param input the user input
+         * @param start the index of the content after the command word, or {@code NO_CONTENT}
          * @param tasks the TaskList from which the task will be removed
          * @param storage the Storage object to save changes
+         * @param history the UndoHistory to record the removal in
          * @param ui the Ui object used to generate confirmation message
-         * @return the string confirming the task has been deleted
-         * @throws ChatterException if the index is missing, not an integer, or invalid
+         * @return the string confirming the tasks have been deleted
+         * @throws ChatterException if the index or selection is missing, not an integer, or invalid
          */
-        public static String execute(String[] parts, TaskList tasks, Storage storage, Ui ui) throws ChatterException {
-            if (parts.length < 2) {
-                throw new ChatterException("Provide index!");
-            }
-            try {
-                int index = Integer.parseInt(parts[1]) - 1;
-                Task deleteTask = tasks.get(index);
-                tasks.remove(index);
-                storage.save(tasks);
-                return ui.showDeleted(deleteTask, tasks.getSize());
-            } catch (NumberFormatException nfe) {
-                throw new ChatterException("Task number must be an integer!");
+        public static String execute(String input, int start, TaskList tasks, Storage storage,
+                UndoHistory history, Ui ui) throws ChatterException {
+            if (isSelection(input, start)) {
+                BitSet selected = selectTasks(input, start, tasks);
+                List<Task> removed = tasks.removeAll(selected);
+                if (!selected.isEmpty()) {
+                    storage.recordRemoveAll(selected, tasks);
+                }
+                history.recordRemove(input, selected, removed);
+                return ui.showDeletedAll(removed, tasks.getSize());
             }
+            int index = parseTaskIndex(input, start);
+            Task deleteTask = tasks.get(index);
+            tasks.remove(index);
+            storage.recordRemove(index, tasks);
+            BitSet removed = new BitSet(index + 1);
+            removed.set(index);
+            history.recordRemove(input, removed, List.of(deleteTask));
+            return ui.showDeleted(deleteTask, tasks.getSize());
         }
     }
 
@@ -228,28 +682,38 @@ public class Parser {
      */
     private static class MarkCommand {
         /**
-         * Executes the 'mark' command.
+         * Executes the 'mark' command on one task, or on every selected task with a single record persisted.
          *
-         * @param parts the input split into command and content
+         * @param input the user input
+         * @param start the index of the content after the command word, or {@code NO_CONTENT}
          * @param tasks the TaskList containing the task to mark
          * @param storage the Storage object to save changes
+         * @param history the UndoHistory to record the status changes in
          * @param ui the Ui object used to generate confirmation message
-         * @return the string confirming the task has been marked
-         * @throws ChatterException if the index is missing, not an integer, or invalid
+         * @return the string confirming the tasks have been marked
+         * @throws ChatterException if the index or selection is missing, not an integer, or invalid
          */
-        public static String execute(String[] parts, TaskList tasks, Storage storage, Ui ui) throws ChatterException {
-            if (parts.length < 2) {
-                throw new ChatterException("Provide index!");
+        public static String execute(String input, int start, TaskList tasks, Storage storage,
+                UndoHistory history, Ui ui) throws ChatterException {
+            if (isSelection(input, start)) {
+                BitSet selected = selectTasks(input, start, tasks);
+                BitSet changing = selectChanging(selected, true, tasks);
+                List<Task> changed = tasks.markAll(selected);
+                if (!selected.isEmpty()) {
+                    storage.recordMarkAll(selected, tasks);
+                }
+                history.recordStatus(input, changing, true);
+                return ui.showMarkedAll(changed);
             }
-            try {
-                int index = Integer.parseInt(parts[1]) - 1;
-                Task markTask = tasks.get(index);
-                markTask.markAsDone();
-                storage.save(tasks);
-                return ui.showMarked(markTask);
-            } catch (NumberFormatException nfe) {
-                throw new ChatterException("Task number must be an integer!");
+            int index = parseTaskIndex(input, start);
+            BitSet changing = new BitSet();
+            if (!tasks.get(index).isDone()) {
+                changing.set(index);
             }
+            Task markTask = tasks.mark(index);
+            storage.recordMark(index, tasks);
+            history.recordStatus(input, changing, true);
+            return ui.showMarked(markTask);
         }
     }
 
@@ -258,28 +722,38 @@ public class Parser {
      */
     private static class UnmarkCommand {
         /**
-         * Executes the 'unmark' command.
+         * Executes the 'unmark' command on one task, or on every selected task with a single record persisted.
          *
-         * @param parts the input split into command and content
+         * @param input the user input
+         * @param start the index of the content after the command word, or {@code NO_CONTENT}
          * @param tasks the TaskList containing the task to unmark
          * @param storage the Storage object to save changes
+         * @param history the UndoHistory to record the status changes in
          * @param ui the Ui object used to generate confirmation message
-         * @return the string confirming the task has been unmarked
-         * @throws ChatterException if the index is missing, not an integer, or invalid
+         * @return the string confirming the tasks have been unmarked
+         * @throws ChatterException if the index or selection is missing, not an integer, or invalid
          */
-        public static String execute(String[] parts, TaskList tasks, Storage storage, Ui ui) throws ChatterException {
-            if (parts.length < 2) {
-                throw new ChatterException("Provide index!");
+        public static String execute(String input, int start, TaskList tasks, Storage storage,
+                UndoHistory history, Ui ui) throws ChatterException {
+            if (isSelection(input, start)) {
+                BitSet selected = selectTasks(input, start, tasks);
+                BitSet changing = selectChanging(selected, false, tasks);
+                List<Task> changed = tasks.unmarkAll(selected);
+                if (!selected.isEmpty()) {
+                    storage.recordUnmarkAll(selected, tasks);
+                }
+                history.recordStatus(input, changing, false);
+                return ui.showUnmarkedAll(changed);
             }
-            try {
-                int index = Integer.parseInt(parts[1]) - 1;
-                Task unmarkTask = tasks.get(index);
-                unmarkTask.unmark();
-                storage.save(tasks);
-                return ui.showUnmarked(unmarkTask);
-            } catch (NumberFormatException nfe) {
-                throw new ChatterException("Task number must be an integer!");
+            int index = parseTaskIndex(input, start);
+            BitSet changing = new BitSet();
+            if (tasks.get(index).isDone()) {
+                changing.set(index);
             }
+            Task unmarkTask = tasks.unmark(index);
+            storage.recordUnmark(index, tasks);
+            history.recordStatus(input, changing, false);
+            return ui.showUnmarked(unmarkTask);
         }
     }
 
@@ -290,19 +764,58 @@ public class Parser {
         /**
          * Executes the 'on' command.
          *
-         * @param parts the input split into command and content
+         * @param input the user input
+         * @param start the index of the content after the command word, or {@code NO_CONTENT}
          * @param tasks the TaskList to search for tasks on a given date
          * @param ui the Ui object used to generate the task list message
          * @return the string listing tasks occurring on the specified date
          * @throws ChatterException if the date is missing or in an invalid format
          */
-        public static String execute(String[] parts, TaskList tasks, Ui ui) throws ChatterException {
-            if (parts.length < 2 || parts[1].isBlank()) {
+        public static String execute(String input, int start, TaskList tasks, Ui ui) throws ChatterException {
+            if (start == NO_CONTENT || isBlank(input, start)) {
                 throw new ChatterException("Please provide a date in yyyy-MM-dd format!");
             }
             try {
-                LocalDate date = LocalDate.parse(parts[1].trim(), DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-                return ui.showTasksOnDate(date, tasks);
+                LocalDate date = LocalDate.parse(trimmed(input, start, input.length()), DATE_FORMAT);
+                return ui.showTasksOnDate(date, tasks.findOn(date));
+            } catch (DateTimeParseException dtpe) {
+                throw new ChatterException("Invalid date format! Please use yyyy-MM-dd!");
+            }
+        }
+    }
+
+    /**
+     * Handles the 'between' command.
+     */
+    private static class BetweenCommand {
+        /**
+         * Executes the 'between' command.
+         *
+         * @param input the user input
+         * @param start the index of the content after the command word, or {@code NO_CONTENT}
+         * @param tasks the TaskList to search for tasks within the given dates
+         * @param ui the Ui object used to generate the task list message
+         * @return the string listing tasks occurring on any day from the first to the second date
+         * @throws ChatterException if either date is missing, in an invalid format, or out of order
+         */
+        public static String execute(String input, int start, TaskList tasks, Ui ui) throws ChatterException {
+            int end = start == NO_CONTENT ? 0 : trimEnd(input, start, input.length());
+            int firstStart = start == NO_CONTENT ? 0 : trimStart(input, start, end);
+            int firstEnd = nextSpace(input, firstStart, end);
+            int secondStart = firstEnd;
+            while (secondStart < end && input.charAt(secondStart) == ' ') {
+                secondStart++;
+            }
+            if (secondStart == end || nextSpace(input, secondStart, end) != end) {
+                throw new ChatterException("Please provide two dates in yyyy-MM-dd format!");
+            }
+            try {
+                LocalDate from = LocalDate.parse(input.substring(firstStart, firstEnd), DATE_FORMAT);
+                LocalDate to = LocalDate.parse(input.substring(secondStart, end), DATE_FORMAT);
+                if (from.isAfter(to)) {
+                    throw new ChatterException("The first date must not be after the second date!");
+                }
+                return ui.showTasksBetween(from, to, tasks.findBetween(from, to));
             } catch (DateTimeParseException dtpe) {
                 throw new ChatterException("Invalid date format! Please use yyyy-MM-dd!");
             }
@@ -316,19 +829,136 @@ public class Parser {
         /**
          * Executes the 'find' command.
          *
-         * @param parts the input split into command and content
+         * @param input the user input
+         * @param start the index of the content after the command word, or {@code NO_CONTENT}
          * @param tasks the TaskList to search for matching tasks
          * @param ui the Ui object used to generate the matching tasks message
-         * @return the string listing tasks that match the search keyword
+         * @return the string listing tasks whose descriptions contain every search word, ignoring case
          * @throws ChatterException if the keyword is missing
          */
-        public static String execute(String[] parts, TaskList tasks, Ui ui) throws ChatterException {
-            if (parts.length < 2) {
+        public static String execute(String input, int start, TaskList tasks, Ui ui) throws ChatterException {
+            if (start == NO_CONTENT) {
                 throw new ChatterException("Please enter what you are looking for!");
             }
-            String keyword = parts[1];
-            TaskList matchingTasks = tasks.findMatching(keyword);
-            return ui.showFound(matchingTasks);
+            return ui.showFound(tasks.findMatching(input.substring(start)));
+        }
+    }
+
+    /**
+     * Handles the 'import' command.
+     */
+    private static class ImportCommand {
+        /**
+         * Executes the 'import' command, running every line of a file as one batch.
+         *
+         * @param input the user input
+         * @param start the index of the content after the command word, or {@code NO_CONTENT}
+         * @param tasks the TaskList the commands operate on
+         * @param storage the Storage object to save changes
+         * @param history the UndoHistory to record the batch in
+         * @param ui the Ui object used to generate the summary
+         * @return the summary of the batch
+         * @throws ChatterException if the file is missing or cannot be read, or any of its commands fails
+         */
+        public static String execute(String input, int start, TaskList tasks, Storage storage,
+                UndoHistory history, Ui ui) throws ChatterException {
+            if (start == NO_CONTENT || isBlank(input, start)) {
+                throw new ChatterException("Please provide the file to import!");
+            }
+            String file = trimmed(input, start, input.length());
+            List<String> commands;
+            try {
+                commands = Files.readAllLines(Path.of(file));
+            } catch (IOException | InvalidPathException e) {
+                throw new ChatterException("Could not read " + file + "!");
+            }
+            return parseBatch(commands, tasks, ui, storage, history);
+        }
+    }
+
+    /**
+     * Handles the 'stats' command.
+     */
+    private static class StatsCommand {
+        /**
+         * Executes the 'stats' command, showing the metrics of the session after turning them on or off,
+         * or resetting them, if asked to.
+         *
+         * @param input the user input
+         * @param start the index of the content after the command word, or {@code NO_CONTENT}
+         * @param ui the Ui object holding the metrics and used to generate the report
+         * @return the metrics report
+         * @throws ChatterException if the command is followed by anything but {@code on}, {@code off} or {@code reset}
+         */
+        public static String execute(String input, int start, Ui ui) throws ChatterException {
+            String option = start == NO_CONTENT ? "" : trimmed(input, start, input.length());
+            Metrics metrics = ui.getMetrics();
+            switch (option) {
+            case "":
+                break;
+            case "on":
+                metrics.setEnabled(true);
+                break;
+            case "off":
+                metrics.setEnabled(false);
+                break;
+            case "reset":
+                metrics.reset();
+                break;
+            default:
+                throw new ChatterException("stats can only be followed by on, off or reset!");
+            }
+            return ui.showStats();
+        }
+    }
+
+    /**
+     * Handles the 'undo' command.
+     */
+    private static class UndoCommand {
+        /**
+         * Executes the 'undo' command, reversing the most recent command that changed the task list.
+         *
+         * @param start the index of the content after the command word, or {@code NO_CONTENT}
+         * @param tasks the TaskList to change back
+         * @param storage the Storage object to save changes
+         * @param history the UndoHistory holding the commands that can be undone
+         * @param ui the Ui object used to generate confirmation message
+         * @return the string naming the command that was undone
+         * @throws ChatterException if the command has unexpected additional content, or there is nothing to undo
+         */
+        public static String execute(int start, TaskList tasks, Storage storage, UndoHistory history, Ui ui)
+                throws ChatterException {
+            if (start != NO_CONTENT) {
+                throw new ChatterException("undo command should not be followed by anything!");
+            }
+            String command = history.undo(tasks, storage);
+            return ui.showUndone(command, tasks.getSize());
+        }
+    }
+
+    /**
+     * Handles the 'redo' command.
+     */
+    private static class RedoCommand {
+        /**
+         * Executes the 'redo' command, running the most recently undone command again.
+         *
+         * @param start the index of the content after the command word, or {@code NO_CONTENT}
+         * @param tasks the TaskList to change
+         * @param storage the Storage object to save changes
+         * @param history the UndoHistory holding the commands that can be redone
+         * @param ui the Ui object used to generate confirmation message
+         * @return the string naming the command that was redone
+         * @throws ChatterException if the command has unexpected additional content, or there is nothing to redo
+         */
+        public static String execute(int start, TaskList tasks, Storage storage, UndoHistory history, Ui ui)
+                throws ChatterException {
+            if (start != NO_CONTENT) {
+                throw new ChatterException("redo command should not be followed by anything!");
+            }
+            String command = history.redo(tasks, storage);
+            return ui.showRedone(command, tasks.getSize());
         }
     }
 }
@@ -0,0 +1,285 @@
+package chatter.parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import chatter.exception.ChatterException;
+import chatter.storage.Storage;
+import chatter.task.Task;
+import chatter.task.TaskList;
+
+/**
+ * Commands that can be undone and redone, kept as the edits each of them made to the task list.
+ * <p>
+ * No copy of the list is kept: each edit only holds the indexes it touched and, for additions and removals,
+ * the tasks themselves, so the memory used grows with the size of the changes rather than of the list.
+ * Undoing a command applies the inverse of its edits, newest first, and redoing it applies them again.
+ * Both are persisted through the {@link Storage} like any other change, as a single batch.
+ * </p>
+ * <p>
+ * Up to a fixed number of commands are kept. A new command that changes the list forgets the commands
+ * that were undone, and a batch of commands is undone as one.
+ * </p>
+ */
+public class UndoHistory {
+    /** Number of commands kept by default */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    /** History that keeps nothing, for callers that do not offer undo */
+    static final UndoHistory NONE = new UndoHistory(0);
+
+    /** Number of commands kept */
+    private final int capacity;
+
+    /** Commands that can be undone, oldest first */
+    private final ArrayDeque<Step> undoSteps = new ArrayDeque<>();
+
+    /** Commands that were undone and can be redone, most recently undone last */
+    private final ArrayDeque<Step> redoSteps = new ArrayDeque<>();
+
+    /** Step the commands of the batch in progress are recorded into, or {@code null} outside a batch */
+    private Step batch;
+
+    /**
+     * Constructs an empty {@code UndoHistory}.
+     *
+     * @param capacity the number of commands kept, or 0 to keep none
+     */
+    public UndoHistory(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Records that {@code command} added {@code task} at {@code index}.
+     */
+    void recordAdd(String command, int index, Task task) {
+        record(command, new Edit(Edit.Kind.ADDED, new int[] {index}, List.of(task), false));
+    }
+
+    /**
+     * Records that {@code command} removed {@code removed}, the tasks at {@code indexes} before the removal.
+     */
+    void recordRemove(String command, BitSet indexes, List<Task> removed) {
+        record(command, new Edit(Edit.Kind.REMOVED, indexes.stream().toArray(), List.copyOf(removed), false));
+    }
+
+    /**
+     * Records that {@code command} marked the tasks at {@code indexes} as done or not done.
+     * Only the tasks whose status changed should be given; nothing is recorded if there are none.
+     */
+    void recordStatus(String command, BitSet indexes, boolean isDone) {
+        record(command, new Edit(Edit.Kind.STATUS, indexes.stream().toArray(), List.of(), isDone));
+    }
+
+    /**
+     * Starts recording the following commands as a single step, until {@link #commitBatch(String)}
+     * or {@link #abortBatch()}.
+     */
+    void beginBatch() {
+        if (capacity > 0) {
+            batch = new Step("");
+        }
+    }
+
+    /**
+     * Keeps the commands recorded since {@link #beginBatch()} as one step, if any of them changed the list.
+     *
+     * @param description how the batch is shown when it is undone or redone
+     */
+    void commitBatch(String description) {
+        Step step = batch;
+        batch = null;
+        if (step != null && !step.edits.isEmpty()) {
+            push(new Step(description, step.edits));
+        }
+    }
+
+    /**
+     * Forgets the commands recorded since {@link #beginBatch()}.
+     */
+    void abortBatch() {
+        batch = null;
+    }
+
+    /**
+     * Undoes the most recent command that has not been undone.
+     *
+     * @return the command that was undone
+     * @throws ChatterException if there is nothing to undo, or the list could not be changed back;
+     *     the list is left as it was in that case
+     */
+    String undo(TaskList tasks, Storage storage) throws ChatterException {
+        Step step = undoSteps.peekLast();
+        if (step == null) {
+            throw new ChatterException("There is nothing to undo!");
+        }
+        apply(step, true, tasks, storage);
+        redoSteps.addLast(undoSteps.removeLast());
+        return step.command;
+    }
+
+    /**
+     * Redoes the most recently undone command.
+     *
+     * @return the command that was redone
+     * @throws ChatterException if there is nothing to redo, or the list could not be changed;
+     *     the list is left as it was in that case
+     */
+    String redo(TaskList tasks, Storage storage) throws ChatterException {
+        Step step = redoSteps.peekLast();
+        if (step == null) {
+            throw new ChatterException("There is nothing to redo!");
+        }
+        apply(step, false, tasks, storage);
+        undoSteps.addLast(redoSteps.removeLast());
+        return step.command;
+    }
+
+    private void record(String command, Edit edit) {
+        if (capacity == 0 || edit.indexes.length == 0) {
+            return;
+        }
+        if (batch != null) {
+            batch.edits.add(edit);
+            return;
+        }
+        Step step = new Step(command);
+        step.edits.add(edit);
+        push(step);
+    }
+
+    private void push(Step step) {
+        redoSteps.clear();
+        undoSteps.addLast(step);
+        if (undoSteps.size() > capacity) {
+            undoSteps.removeFirst();
+        }
+    }
+
+    /**
+     * Applies the inverse of every edit of {@code step}, newest first, or else every edit again, oldest first,
+     * as a single transaction and storage batch.
+     */
+    private static void apply(Step step, boolean isUndo, TaskList tasks, Storage storage) throws ChatterException {
+        boolean isCommitted = false;
+        tasks.beginTransaction();
+        try {
+            storage.beginBatch();
+            int count = step.edits.size();
+            for (int i = 0; i < count; i++) {
+                Edit edit = step.edits.get(isUndo ? count - 1 - i : i);
+                switch (edit.kind) {
+                case ADDED:
+                    if (isUndo) {
+                        removeAll(edit, tasks, storage);
+                    } else {
+                        insertAll(edit, tasks, storage);
+                    }
+                    break;
+                case REMOVED:
+                    if (isUndo) {
+                        insertAll(edit, tasks, storage);
+                    } else {
+                        removeAll(edit, tasks, storage);
+                    }
+                    break;
+                default:
+                    setStatus(edit, isUndo != edit.isDone, tasks, storage);
+                    break;
+                }
+            }
+            tasks.commit();
+            isCommitted = true;
+        } finally {
+            if (!isCommitted) {
+                tasks.rollback();
+                storage.abortBatch();
+            }
+        }
+        storage.commitBatch(tasks);
+    }
+
+    /**
+     * Inserts the tasks of {@code edit} at its indexes, in ascending order so that each lands where it was.
+     */
+    private static void insertAll(Edit edit, TaskList tasks, Storage storage) throws ChatterException {
+        for (int i = 0; i < edit.indexes.length; i++) {
+            Task t = edit.tasks.get(i);
+            tasks.insert(edit.indexes[i], t);
+            storage.recordInsert(edit.indexes[i], t, tasks);
+        }
+    }
+
+    private static void removeAll(Edit edit, TaskList tasks, Storage storage) throws ChatterException {
+        BitSet indexes = toBitSet(edit.indexes);
+        tasks.removeAll(indexes);
+        storage.recordRemoveAll(indexes, tasks);
+    }
+
+    private static void setStatus(Edit edit, boolean isDone, TaskList tasks, Storage storage)
+            throws ChatterException {
+        BitSet indexes = toBitSet(edit.indexes);
+        if (isDone) {
+            tasks.markAll(indexes);
+            storage.recordMarkAll(indexes, tasks);
+        } else {
+            tasks.unmarkAll(indexes);
+            storage.recordUnmarkAll(indexes, tasks);
+        }
+    }
+
+    private static BitSet toBitSet(int[] indexes) {
+        BitSet bits = new BitSet();
+        for (int index : indexes) {
+            bits.set(index);
+        }
+        return bits;
+    }
+
+    /**
+     * Edits made by one command, or by one batch of commands.
+     */
+    private static class Step {
+        /** The command as the user typed it */
+        private final String command;
+
+        /** Edits made, oldest first */
+        private final ArrayList<Edit> edits;
+
+        Step(String command) {
+            this(command, new ArrayList<>(1));
+        }
+
+        Step(String command, ArrayList<Edit> edits) {
+            this.command = command;
+            this.edits = edits;
+        }
+    }
+
+    /**
+     * One change to the task list, with what is needed to make it and to reverse it.
+     */
+    private static class Edit {
+        private enum Kind { ADDED, REMOVED, STATUS }
+
+        private final Kind kind;
+
+        /** Indexes of the tasks changed, in ascending order, as they were before a removal or after an addition */
+        private final int[] indexes;
+
+        /** Tasks added or removed, one per index */
+        private final List<Task> tasks;
+
+        /** Whether the tasks were marked as done rather than as not done */
+        private final boolean isDone;
+
+        Edit(Kind kind, int[] indexes, List<Task> tasks, boolean isDone) {
+            this.kind = kind;
+            this.indexes = indexes;
+            this.tasks = tasks;
+            this.isDone = isDone;
+        }
+    }
+}
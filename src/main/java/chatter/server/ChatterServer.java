@@ -0,0 +1,336 @@
+package chatter.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import chatter.exception.ChatterException;
+import chatter.parser.Parser;
+import chatter.ui.Ui;
+
+/**
+ * Serves many users from one process over a line-based TCP protocol, each with their own task file.
+ * <p>
+ * A client first sends its user name on a line of its own, then one command per line. The server answers
+ * the user name with the welcome message and each command with Chatter's response. Every answer is
+ * followed by a line holding a single {@code .}, and a line of an answer that starts with {@code .} has
+ * another {@code .} put in front of it. The connection is closed after {@code bye}, or once the client
+ * has been silent for the idle timeout.
+ * </p>
+ * <p>
+ * Each connection is served by a thread of its own. The sessions of the users are kept in a bounded
+ * {@link SessionCache} that flushes and evicts those no connection has used for the idle timeout.
+ * The server only listens on the loopback address, and refuses {@code import}, as clients must not
+ * read the server's files, including the task files of other users.
+ * </p>
+ */
+public class ChatterServer {
+    /** Answer to an {@code import} command, which could read any file the server can */
+    private static final String IMPORT_DISABLED = "import is not available on the server!";
+
+    /** Port used when no other is given */
+    public static final int DEFAULT_PORT = 5050;
+
+    /** Directory of the users' task files when no other is given */
+    public static final String DEFAULT_DATA_DIR = "data/users";
+
+    /** Command line usage of the server */
+    private static final String USAGE = "Usage: java chatter.server.ChatterServer [--port <port>]"
+            + " [--data <directory>] [--max-sessions <count>] [--idle-seconds <seconds>]";
+
+    /** Number of sessions kept loaded when no other number is given */
+    private static final int DEFAULT_MAX_SESSIONS = 1000;
+
+    /** Idle timeout when no other is given, in seconds */
+    private static final int DEFAULT_IDLE_SECONDS = 300;
+
+    /** Size of the buffers of each connection, in chars */
+    private static final int BUFFER_SIZE = 1 << 13;
+
+    /**
+     * Names users may have. Names are not case-sensitive: they are lower-cased to name the task file,
+     * so that one user has a single session even on file systems that ignore case.
+     */
+    private static final Pattern USER_NAME = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+    /** Line that ends every answer */
+    private static final String END_OF_ANSWER = ".";
+
+    /** Sessions of the users */
+    private final SessionCache sessions;
+
+    /** Time after which idle connections are closed and unused sessions evicted, in milliseconds */
+    private final long idleMillis;
+
+    /** Formats the messages that do not come from a session */
+    private final Ui ui = new Ui();
+
+    /** Sockets of the connections being served */
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+
+    /** Threads serving the connections */
+    private final ExecutorService connections = Executors.newCachedThreadPool(daemon("chatter-connection"));
+
+    /** Thread evicting idle sessions */
+    private final ScheduledExecutorService evictor =
+            Executors.newSingleThreadScheduledExecutor(daemon("chatter-evictor"));
+
+    /** Socket accepting connections, or {@code null} before {@link #start(int)} */
+    private ServerSocket serverSocket;
+
+    /**
+     * Constructs a {@code ChatterServer} keeping the task file of each user in {@code dataDir}.
+     *
+     * @param dataDir the directory holding the task file of each user
+     * @param maxSessions the largest number of sessions kept loaded at once
+     * @param idleMillis the time after which idle connections are closed and unused sessions evicted,
+     *     in milliseconds
+     */
+    public ChatterServer(Path dataDir, int maxSessions, long idleMillis) {
+        assert maxSessions > 0 && idleMillis > 0 : "Session limits must be positive";
+        this.sessions = new SessionCache(dataDir, maxSessions, TimeUnit.MILLISECONDS.toNanos(idleMillis));
+        this.idleMillis = idleMillis;
+    }
+
+    /**
+     * Starts accepting connections on {@code port} of the loopback address.
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public void start(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        long sweepMillis = Math.max(1, idleMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        Thread acceptor = daemon("chatter-server").newThread(this::acceptConnections);
+        acceptor.start();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of sessions currently loaded, including evicted ones that are still being flushed.
+     *
+     * @return the number of loaded sessions
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Stops accepting connections, closes the open ones and flushes every session to disk.
+     */
+    public void close() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            // Nothing more can be done; the sessions are still flushed below.
+        }
+        for (Socket client : clients) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                // The connection is being dropped anyway.
+            }
+        }
+        connections.shutdown();
+        evictor.shutdown();
+        try {
+            connections.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sessions.close();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                clients.add(client);
+                connections.execute(() -> serve(client));
+            } catch (IOException e) {
+                // The server socket was closed, or the connection failed before it could be served.
+            }
+        }
+    }
+
+    private void evictIdle() {
+        try {
+            sessions.evictIdle();
+        } catch (RuntimeException e) {
+            // A failure must not cancel the later sweeps.
+            System.err.println("Could not evict idle sessions: " + e.getMessage());
+        }
+    }
+
+    private void serve(Socket client) {
+        try (client;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8), BUFFER_SIZE);
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            client.setSoTimeout((int) Math.min(idleMillis, Integer.MAX_VALUE));
+            String user = in.readLine();
+            if (user == null) {
+                return;
+            }
+            SessionCache.Session session;
+            try {
+                session = acquire(user.trim());
+            } catch (ChatterException e) {
+                writeAnswer(out, ui.showError(e.getMessage()));
+                out.flush();
+                return;
+            }
+            try {
+                writeAnswer(out, ui.showWelcome());
+                out.flush();
+                String input;
+                while ((input = in.readLine()) != null) {
+                    writeAnswer(out, isImport(input) ? ui.showError(IMPORT_DISABLED) : session.respond(input));
+                    if (input.equals("bye")) {
+                        break;
+                    }
+                    if (!in.ready()) {
+                        out.flush();
+                    }
+                }
+                out.flush();
+            } finally {
+                sessions.release(session);
+            }
+        } catch (SocketTimeoutException e) {
+            // The client was idle for too long; closing the connection frees its session for eviction.
+        } catch (IOException e) {
+            // The client went away.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            clients.remove(client);
+        }
+    }
+
+    /**
+     * Returns whether {@code input} is an {@code import} command, which would read a file of the server's
+     * choosing on behalf of the client.
+     */
+    private static boolean isImport(String input) {
+        return Parser.getCommandWord(input).equals("import");
+    }
+
+    private SessionCache.Session acquire(String user) throws ChatterException, InterruptedException {
+        if (!USER_NAME.matcher(user).matches()) {
+            throw new ChatterException("User names must be 1 to 32 letters, digits, '-' or '_'!");
+        }
+        return sessions.acquire(user.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Writes {@code answer} followed by the end-of-answer line, doubling the {@code .} that starts any line.
+     */
+    private static void writeAnswer(Writer out, String answer) throws IOException {
+        int start = 0;
+        while (start <= answer.length()) {
+            int end = answer.indexOf('\n', start);
+            if (end < 0) {
+                end = answer.length();
+            }
+            if (end > start && answer.charAt(start) == '.') {
+                out.write('.');
+            }
+            out.write(answer, start, end - start);
+            out.write('\n');
+            start = end + 1;
+        }
+        out.write(END_OF_ANSWER);
+        out.write('\n');
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Runs the server until the process is stopped, flushing every session to disk on the way out.
+     *
+     * @param args {@code --port <port>} to listen on, {@code --data <directory>} to keep the task files in,
+     *     {@code --max-sessions <count>} to bound the loaded sessions and {@code --idle-seconds <seconds>}
+     *     to set the idle timeout
+     */
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        String dataDir = DEFAULT_DATA_DIR;
+        int maxSessions = DEFAULT_MAX_SESSIONS;
+        int idleSeconds = DEFAULT_IDLE_SECONDS;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--port") && i + 1 < args.length) {
+                    port = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--data") && i + 1 < args.length) {
+                    dataDir = args[++i];
+                } else if (args[i].equals("--max-sessions") && i + 1 < args.length) {
+                    maxSessions = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--idle-seconds") && i + 1 < args.length) {
+                    idleSeconds = Integer.parseInt(args[++i]);
+                } else {
+                    throw new IllegalArgumentException(args[i]);
+                }
+            }
+            if (maxSessions <= 0 || idleSeconds <= 0) {
+                throw new IllegalArgumentException("limits must be positive");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        ChatterServer server = new ChatterServer(Path.of(dataDir), maxSessions, idleSeconds * 1000L);
+        try {
+            server.start(port);
+        } catch (IOException e) {
+            System.err.println("Could not listen on port " + port + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "chatter-shutdown"));
+        System.out.println("Serving Chatter on port " + server.getPort());
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package chatter.server;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+import chatter.exception.ChatterException;
+import chatter.ui.Chatter;
+
+/**
+ * Bounded cache of the {@link Chatter} sessions of the users of a {@link ChatterServer}, each with its own task file.
+ * <p>
+ * A session stays loaded while any connection uses it. Once unused, it is evicted after being idle for
+ * the idle timeout, or earlier when another user needs its place, least recently used first.
+ * Evicting a session flushes its tasks to disk. A user whose session is still being evicted waits
+ * until the flush is done, so the task file is never loaded while it is being written.
+ * </p>
+ */
+class SessionCache {
+    /** Directory holding the task file of each user */
+    private final Path dataDir;
+
+    /** Largest number of sessions kept loaded */
+    private final int capacity;
+
+    /** Time after which an unused session is evicted, in nanoseconds */
+    private final long idleNanos;
+
+    /** Loaded sessions by user, least recently acquired first */
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Users whose evicted sessions are still being flushed */
+    private final Set<String> closing = new HashSet<>();
+
+    /** Whether the cache has been closed */
+    private boolean isClosed;
+
+    /**
+     * Constructs an empty {@code SessionCache}.
+     *
+     * @param dataDir the directory holding the task file of each user
+     * @param capacity the largest number of sessions kept loaded
+     * @param idleNanos the time after which an unused session is evicted, in nanoseconds
+     */
+    SessionCache(Path dataDir, int capacity, long idleNanos) {
+        this.dataDir = dataDir;
+        this.capacity = capacity;
+        this.idleNanos = idleNanos;
+    }
+
+    /**
+     * Returns the session of {@code user}, loading it if necessary, and keeps it loaded until it is
+     * {@linkplain #release(Session) released}. Makes room by evicting the least recently used unused session.
+     *
+     * @param user the name of the user
+     * @return the session of the user
+     * @throws ChatterException if every loaded session is in use or the cache is closed
+     * @throws InterruptedException if interrupted while waiting for an earlier session of the user to be flushed
+     */
+    Session acquire(String user) throws ChatterException, InterruptedException {
+        Session evicted = null;
+        Session session;
+        synchronized (this) {
+            while (closing.contains(user)) {
+                wait();
+            }
+            if (isClosed) {
+                throw new ChatterException("The server is shutting down!");
+            }
+            session = sessions.get(user);
+            if (session == null) {
+                if (sessions.size() >= capacity) {
+                    evicted = evictEldestUnused();
+                    if (evicted == null) {
+                        throw new ChatterException("Too many users are connected, please try again later!");
+                    }
+                }
+                session = new Session(user, dataDir.resolve(user + ".txt"));
+                sessions.put(user, session);
+            }
+            session.users++;
+        }
+        if (evicted != null) {
+            flush(evicted);
+        }
+        return session;
+    }
+
+    /**
+     * Gives back a session obtained from {@link #acquire(String)}, after which it may be evicted.
+     *
+     * @param session the session to give back
+     */
+    synchronized void release(Session session) {
+        session.users--;
+        session.lastUsed = System.nanoTime();
+    }
+
+    /**
+     * Evicts and flushes every unused session that has been idle for longer than the idle timeout.
+     */
+    void evictIdle() {
+        List<Session> evicted = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            Iterator<Session> it = sessions.values().iterator();
+            while (it.hasNext()) {
+                Session session = it.next();
+                if (session.users == 0 && now - session.lastUsed > idleNanos) {
+                    it.remove();
+                    closing.add(session.user);
+                    evicted.add(session);
+                }
+            }
+        }
+        for (Session session : evicted) {
+            flush(session);
+        }
+    }
+
+    /**
+     * Returns the number of sessions currently loaded, including evicted ones that are still being flushed.
+     *
+     * @return the number of loaded sessions
+     */
+    synchronized int size() {
+        return sessions.size() + closing.size();
+    }
+
+    /**
+     * Flushes and evicts every session. Sessions can no longer be acquired afterwards.
+     */
+    void close() {
+        List<Session> evicted;
+        synchronized (this) {
+            isClosed = true;
+            evicted = new ArrayList<>(sessions.values());
+            for (Session session : evicted) {
+                closing.add(session.user);
+            }
+            sessions.clear();
+        }
+        for (Session session : evicted) {
+            flush(session);
+        }
+    }
+
+    /**
+     * Removes the least recently used session that no connection is using, or returns {@code null} if there is none.
+     */
+    private Session evictEldestUnused() {
+        Iterator<Session> it = sessions.values().iterator();
+        while (it.hasNext()) {
+            Session session = it.next();
+            if (session.users == 0) {
+                it.remove();
+                closing.add(session.user);
+                return session;
+            }
+        }
+        return null;
+    }
+
+    private void flush(Session session) {
+        try {
+            session.close();
+        } finally {
+            synchronized (this) {
+                closing.remove(session.user);
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * A user's {@link Chatter}, loaded the first time it is used. Commands are run one at a time,
+     * even when the user has several connections.
+     */
+    static class Session {
+        /** Name of the user */
+        private final String user;
+
+        /** Task file of the user */
+        private final Path filePath;
+
+        /** Number of connections using this session, only accessed while holding the cache's lock */
+        private int users;
+
+        /** Time this session was last released, as given by {@link System#nanoTime()} */
+        private long lastUsed;
+
+        /** The loaded session, or {@code null} before the first command and after closing */
+        private Chatter chatter;
+
+        private Session(String user, Path filePath) {
+            this.user = user;
+            this.filePath = filePath;
+        }
+
+        /**
+         * Runs {@code input} against this session and returns the response.
+         *
+         * @param input the user input
+         * @return Chatter's response
+         */
+        synchronized String respond(String input) {
+            if (chatter == null) {
+                chatter = new Chatter(filePath.toString());
+            }
+            return chatter.getResponse(input);
+        }
+
+        private synchronized void close() {
+            if (chatter != null) {
+                chatter.close();
+                chatter = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package chatter.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import chatter.exception.ChatterException;
+import chatter.task.Deadline;
+import chatter.task.Event;
+import chatter.task.Task;
+import chatter.task.ToDo;
+
+/**
+ * Encodes tasks in the compact binary task file format.
+ * <p>
+ * A file starts with the four magic bytes {@code 0x89 'C' 'H' 'T'} and a version byte.
+ * Each task is then stored as a type byte ({@code 'T'}, {@code 'D'} or {@code 'E'}), a flags byte
+ * whose lowest bit is the done status, the UTF-8 description prefixed with its length as an
+ * unsigned varint, and one ({@code D}) or two ({@code E}) timestamps in minutes since the epoch.
+ * </p>
+ */
+class BinaryTaskCodec {
+    /** Bytes every binary task file starts with */
+    private static final byte[] MAGIC = {(byte) 0x89, 'C', 'H', 'T'};
+
+    /** Current version of the format */
+    private static final byte VERSION = 1;
+
+    /** Flag bit set when a task is done */
+    private static final int DONE_FLAG = 1;
+
+    /** Earliest timestamp a task can have, in minutes since the epoch */
+    private static final long MIN_EPOCH_MINUTE = LocalDateTime.MIN.toEpochSecond(ZoneOffset.UTC) / 60;
+
+    /** Latest timestamp a task can have, in minutes since the epoch */
+    private static final long MAX_EPOCH_MINUTE = Math.floorDiv(LocalDateTime.MAX.toEpochSecond(ZoneOffset.UTC), 60);
+
+    /** Size of the buffer the file is decoded from, which grows only for a record that does not fit in it */
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private BinaryTaskCodec() {
+    }
+
+    /**
+     * Returns whether {@code filePath} starts with the binary format's magic bytes.
+     *
+     * @param filePath the file to inspect
+     * @return {@code true} if the file is in the binary format
+     * @throws IOException if the file cannot be read
+     */
+    static boolean isBinary(Path filePath) throws IOException {
+        try (InputStream in = Files.newInputStream(filePath)) {
+            return Arrays.equals(in.readNBytes(MAGIC.length), MAGIC);
+        }
+    }
+
+    /**
+     * Encodes {@code tasks}, including the file header.
+     *
+     * @param tasks the tasks to encode
+     * @return the encoded file content
+     */
+    static byte[] encode(List<Task> tasks) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(tasks.size() * 32 + MAGIC.length + 1);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            for (Task t : tasks) {
+                writeTask(out, t);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing to memory cannot fail", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes every task in the binary file {@code filePath}.
+     * Records that fail validation are reported and skipped. A truncated or corrupt record is reported
+     * and ends the file, as the records after it cannot be found; the tasks before it are kept.
+     * The file is read through a buffer refilled as it is decoded rather than mapped, so it can be replaced
+     * as soon as it is closed, and its size is not limited by that of a mapping.
+     *
+     * @param filePath the file to read
+     * @param report the report receiving malformed records, numbered from one
+     * @param descriptions the pool the descriptions are shared through
+     * @return the decoded tasks in file order
+     * @throws IOException if the file cannot be read or has an unsupported header
+     */
+    static ArrayList<Task> decode(Path filePath, LoadReport report, DescriptionPool descriptions)
+            throws IOException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            boolean isEndOfFile = fill(channel, buffer);
+            readHeader(buffer);
+            long recordNumber = 1;
+            while (buffer.hasRemaining()) {
+                int start = buffer.position();
+                try {
+                    tasks.add(readTask(buffer, descriptions));
+                } catch (BufferUnderflowException e) {
+                    if (isEndOfFile) {
+                        report.recordMalformed(recordNumber, "truncated record");
+                        break;
+                    }
+                    // The record continues past the buffer: keep its start and read the rest of it.
+                    buffer.position(start).compact();
+                    if (!buffer.hasRemaining()) {
+                        buffer = grow(buffer, channel.size() - channel.position());
+                    }
+                    isEndOfFile = fill(channel, buffer);
+                    continue;
+                } catch (IOException e) {
+                    report.recordMalformed(recordNumber, e.getMessage());
+                    break;
+                } catch (ChatterException e) {
+                    report.recordMalformed(recordNumber, e.getMessage());
+                }
+                recordNumber++;
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Reads from {@code channel} until {@code buffer} is full or the file ends, then flips the buffer.
+     *
+     * @return whether the file ended
+     */
+    private static boolean fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+        boolean isEndOfFile = false;
+        while (buffer.hasRemaining() && !isEndOfFile) {
+            isEndOfFile = channel.read(buffer) < 0;
+        }
+        buffer.flip();
+        return isEndOfFile;
+    }
+
+    /**
+     * Returns a buffer holding the content of the full {@code buffer} with room for as many bytes again,
+     * but for no more than the {@code rest} of the file, so a corrupt record cannot make it outgrow the file.
+     */
+    private static ByteBuffer grow(ByteBuffer buffer, long rest) {
+        int room = (int) Math.max(1, Math.min(buffer.capacity(), rest));
+        return ByteBuffer.allocate(buffer.capacity() + room).put(buffer.flip());
+    }
+
+    /**
+     * Checks the file header at the current position of {@code buffer} and skips past it.
+     *
+     * @param buffer the file content
+     * @throws IOException if the header is missing or has an unsupported version
+     */
+    static void readHeader(ByteBuffer buffer) throws IOException {
+        byte[] magic = new byte[Math.min(MAGIC.length, buffer.remaining())];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a binary task file");
+        }
+        int version = buffer.hasRemaining() ? buffer.get() : -1;
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary task file version " + version);
+        }
+    }
+
+    /**
+     * Decodes the record at the current position of {@code buffer} and advances past it.
+     *
+     * @param buffer the file content
+     * @param descriptions function returning the string to use for an equal description
+     * @return the decoded task
+     * @throws IOException if the record is corrupt and the rest of the file cannot be trusted
+     * @throws ChatterException if the record is well-formed but describes an invalid task, such as one with
+     *     a timestamp out of range; {@code buffer} is then past the record
+     * @throws BufferUnderflowException if the record is truncated
+     */
+    static Task readTask(ByteBuffer buffer, UnaryOperator<String> descriptions)
+            throws IOException, ChatterException {
+        int type = buffer.get();
+        int flags = buffer.get();
+        int length = readVarInt(buffer);
+        if (length < 0) {
+            throw new IOException("Corrupted binary task file: negative description length");
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] description = new byte[length];
+        buffer.get(description);
+        String text = descriptions.apply(new String(description, StandardCharsets.UTF_8));
+        Task t;
+        try {
+            switch (type) {
+            case 'T':
+                t = new ToDo(text);
+                break;
+            case 'D':
+                t = new Deadline(text, fromEpochMinute(buffer.getLong()));
+                break;
+            case 'E':
+                long from = buffer.getLong();
+                long to = buffer.getLong();
+                t = new Event(text, fromEpochMinute(from), fromEpochMinute(to));
+                break;
+            default:
+                throw new IOException("Corrupted binary task file: unknown task type " + type);
+            }
+        } catch (DateTimeException | ArithmeticException e) {
+            throw new ChatterException("Invalid timestamp in binary task file: " + e.getMessage());
+        }
+        if ((flags & DONE_FLAG) != 0) {
+            t.markAsDone();
+        }
+        return t;
+    }
+
+    /**
+     * Checks the record at the current position of {@code buffer} without decoding it, and advances past it.
+     * Only the type, the bounds and the timestamps are checked, which is enough for the record to decode.
+     *
+     * @param buffer the file content
+     * @throws IOException if the record is corrupt and the rest of the file cannot be trusted
+     * @throws ChatterException if the record is well-formed but describes an invalid task;
+     *     {@code buffer} is then past the record
+     * @throws BufferUnderflowException if the record is truncated
+     */
+    static void skipTask(ByteBuffer buffer) throws IOException, ChatterException {
+        int type = buffer.get();
+        buffer.get();
+        int length = readVarInt(buffer);
+        if (length < 0) {
+            throw new IOException("Corrupted binary task file: negative description length");
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        buffer.position(buffer.position() + length);
+        switch (type) {
+        case 'T':
+            break;
+        case 'D':
+            checkEpochMinute(buffer.getLong());
+            break;
+        case 'E':
+            long from = buffer.getLong();
+            long to = buffer.getLong();
+            checkEpochMinute(from);
+            checkEpochMinute(to);
+            if (to <= from) {
+                throw new ChatterException("Event end time must be after event start time!");
+            }
+            break;
+        default:
+            throw new IOException("Corrupted binary task file: unknown task type " + type);
+        }
+    }
+
+    private static void checkEpochMinute(long epochMinute) throws ChatterException {
+        if (epochMinute < MIN_EPOCH_MINUTE || epochMinute > MAX_EPOCH_MINUTE) {
+            throw new ChatterException("Invalid timestamp in binary task file: " + epochMinute + " minutes");
+        }
+    }
+
+    private static void writeTask(DataOutputStream out, Task t) throws IOException {
+        byte[] description = t.getDescription().getBytes(StandardCharsets.UTF_8);
+        if (t instanceof Deadline) {
+            out.writeByte('D');
+        } else if (t instanceof Event) {
+            out.writeByte('E');
+        } else {
+            out.writeByte('T');
+        }
+        out.writeByte(t.isDone() ? DONE_FLAG : 0);
+        writeVarInt(out, description.length);
+        out.write(description);
+        if (t instanceof Deadline) {
+            out.writeLong(toEpochMinute(((Deadline) t).getDateTime()));
+        } else if (t instanceof Event) {
+            out.writeLong(toEpochMinute(((Event) t).getFrom()));
+            out.writeLong(toEpochMinute(((Event) t).getTo()));
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int b = buffer.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupted binary task file: description length too long");
+    }
+
+    static long toEpochMinute(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(Math.multiplyExact(epochMinute, 60), 0, ZoneOffset.UTC);
+    }
+}
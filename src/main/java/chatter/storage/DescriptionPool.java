@@ -0,0 +1,71 @@
+package chatter.storage;
+
+import java.lang.ref.WeakReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded cache that lets tasks loaded with equal descriptions share a single {@code String}.
+ * <p>
+ * The cache is a direct-mapped table of weak references: a description replaces whatever was in its slot,
+ * and a description that no task refers to any more can still be garbage collected. Slots are read and
+ * written without locking, since a lost update only costs a missed match, so one pool can be shared by
+ * the threads of a parallel load. Every match is recorded in the {@link LoadReport} with the bytes it saved.
+ * </p>
+ */
+class DescriptionPool implements UnaryOperator<String> {
+    /** Heap size of a {@code String} object and of an empty array, with compressed references */
+    private static final int STRING_OVERHEAD = 24;
+    private static final int ARRAY_OVERHEAD = 16;
+
+    /** Cached descriptions, indexed by hash */
+    private final WeakReference<String>[] slots;
+
+    /** Report receiving the matches */
+    private final LoadReport report;
+
+    /**
+     * Creates a pool with {@code size} slots, rounded down to a power of two.
+     *
+     * @param size the number of slots, or 0 for a pool that returns every description unchanged
+     * @param report the report receiving the matches
+     */
+    @SuppressWarnings("unchecked")
+    DescriptionPool(int size, LoadReport report) {
+        this.slots = (WeakReference<String>[]) new WeakReference<?>[size <= 0 ? 0 : Integer.highestOneBit(size)];
+        this.report = report;
+    }
+
+    /**
+     * Returns the pooled description equal to {@code description}, or pools and returns {@code description}.
+     *
+     * @param description a description that was just read
+     * @return an equal description, shared with earlier tasks where possible
+     */
+    @Override
+    public String apply(String description) {
+        if (slots.length == 0) {
+            return description;
+        }
+        int hash = description.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & (slots.length - 1);
+        WeakReference<String> cached = slots[slot];
+        String pooled = cached == null ? null : cached.get();
+        if (pooled != null && pooled.equals(description)) {
+            if (pooled != description) {
+                report.recordDeduplicated(sizeOf(description));
+            }
+            return pooled;
+        }
+        slots[slot] = new WeakReference<>(description);
+        return description;
+    }
+
+    /**
+     * Returns the approximate heap size of {@code s}, assuming compact strings.
+     */
+    private static long sizeOf(String s) {
+        boolean isLatin1 = s.chars().allMatch(c -> c < 0x100);
+        long bytes = isLatin1 ? s.length() : 2L * s.length();
+        return STRING_OVERHEAD + ((ARRAY_OVERHEAD + bytes + 7) & ~7L);
+    }
+}
@@ -0,0 +1,188 @@
+package chatter.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import chatter.exception.ChatterException;
+import chatter.task.Task;
+import chatter.task.TaskSource;
+
+/**
+ * {@link TaskSource} over a task file of which only the position of each valid line is kept up front.
+ * Lines are checked while the file is scanned, mostly from their bytes alone with {@link SaveFormatCheck},
+ * so that malformed ones are reported and skipped right away:
+ * {@link #size()} and the index of every task are then the same as after a full load, which keeps the indexes
+ * shown to the user and recorded in the journal valid across reloads. The parsed tasks are not kept, and each
+ * line is parsed again into a {@link Task} the first time it is accessed.
+ */
+class LazyTaskFile implements TaskSource {
+    /** Size of the buffer used to scan the file for line breaks */
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+    /** Open channel to the task file, or {@code null} once materialized */
+    private FileChannel channel;
+
+    /** Byte offset of the start of each valid line */
+    private long[] starts;
+
+    /** Length in bytes of each valid line, without its line terminator */
+    private int[] lengths;
+
+    /** Number of valid lines in the file */
+    private final int lineCount;
+
+    /** Tasks materialized so far, indexed by valid line */
+    private final Task[] materialized;
+
+    /** Pool the descriptions of parsed tasks are shared through */
+    private final DescriptionPool descriptions;
+
+    /**
+     * Scans {@code filePath} for line boundaries, recording the lines that are not valid tasks in {@code report}.
+     *
+     * @param filePath the task file to read
+     * @param report the report receiving malformed lines
+     * @param descriptions the pool the descriptions of parsed tasks are shared through
+     * @throws IOException if the file cannot be read
+     */
+    LazyTaskFile(Path filePath, LoadReport report, DescriptionPool descriptions) throws IOException {
+        this.descriptions = descriptions;
+        this.channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        LineScan scan = new LineScan(report);
+        long position = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        while (channel.read(buffer, position) > 0) {
+            buffer.flip();
+            for (int i = 0; i < buffer.limit(); i++) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    scan.endLine(position + i);
+                } else {
+                    scan.append(b);
+                }
+            }
+            position += buffer.limit();
+            buffer.clear();
+        }
+        if (scan.length > 0) {
+            scan.endLine(position);
+        }
+        this.starts = scan.starts;
+        this.lengths = scan.lengths;
+        this.lineCount = scan.count;
+        this.materialized = new Task[scan.count];
+    }
+
+    @Override
+    public int size() {
+        return lineCount;
+    }
+
+    @Override
+    public synchronized Task get(int index) throws ChatterException {
+        if (index < 0 || index >= lineCount) {
+            throw new ChatterException("You don't have that many task!");
+        }
+        if (materialized[index] == null) {
+            String line = readLine(index);
+            try {
+                materialized[index] = Task.fromSaveFormat(line, descriptions);
+            } catch (Exception e) {
+                // The line was valid when scanned, so the file has been changed since.
+                throw new ChatterException("Task " + (index + 1) + " could not be read from the save file!");
+            }
+        }
+        return materialized[index];
+    }
+
+    @Override
+    public synchronized ArrayList<Task> materialize() {
+        ArrayList<Task> tasks = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            try {
+                tasks.add(get(i));
+            } catch (ChatterException e) {
+                // Only possible if the file was changed since it was scanned; the line is dropped.
+            }
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("    Error closing file: " + e.getMessage());
+        }
+        channel = null;
+        starts = null;
+        lengths = null;
+        return tasks;
+    }
+
+    /**
+     * Reads line {@code index} without its line terminator.
+     */
+    private String readLine(int index) throws ChatterException {
+        ByteBuffer buffer = ByteBuffer.allocate(lengths[index]);
+        try {
+            long position = starts[index];
+            while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) > 0) {
+                // Keep reading until the whole line is in the buffer.
+            }
+        } catch (IOException e) {
+            throw new ChatterException("Error reading file: " + e.getMessage());
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lines found so far while scanning the file, with the bytes of the line being scanned.
+     */
+    private static class LineScan {
+        private final LoadReport report;
+        private long[] starts = new long[1024];
+        private int[] lengths = new int[1024];
+        private int count;
+        private long lineNumber;
+        private long lineStart;
+        private byte[] line = new byte[256];
+        private ByteBuffer view = ByteBuffer.wrap(line);
+        private int length;
+
+        LineScan(LoadReport report) {
+            this.report = report;
+        }
+
+        void append(byte b) {
+            if (length == line.length) {
+                line = Arrays.copyOf(line, line.length * 2);
+                view = ByteBuffer.wrap(line);
+            }
+            line[length++] = b;
+        }
+
+        /**
+         * Ends the line being scanned at byte offset {@code end}, keeping it if it is a valid task.
+         */
+        void endLine(long end) {
+            lineNumber++;
+            int contentLength = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+            if (SaveFormatCheck.isValid(view, 0, contentLength)) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    lengths = Arrays.copyOf(lengths, count * 2);
+                }
+                starts[count] = lineStart;
+                lengths[count] = contentLength;
+                count++;
+            } else {
+                report.recordMalformed(lineNumber, new String(line, 0, contentLength, StandardCharsets.UTF_8));
+            }
+            lineStart = end + 1;
+            length = 0;
+        }
+    }
+}
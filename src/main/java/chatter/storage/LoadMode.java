@@ -0,0 +1,21 @@
+package chatter.storage;
+
+/**
+ * Strategies {@link Storage} can use to read the task file.
+ */
+public enum LoadMode {
+    /** Reads the file line by line and parses every task up front. */
+    STREAMING,
+
+    /** Splits the file into line-aligned chunks and parses them in parallel on the fork-join pool. */
+    PARALLEL,
+
+    /** Checks every line but records only the position of the valid ones, and parses a task when it is accessed. */
+    LAZY,
+
+    /**
+     * Memory-maps a temporary copy of the file and decodes each task straight from the mapping the first time
+     * it is accessed. Suited to large, mostly read task files; writes still go through the normal save path.
+     */
+    MAPPED
+}
@@ -0,0 +1,110 @@
+package chatter.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Summary of the lines that could not be parsed while loading a task file.
+ * Only the first few malformed lines are kept, so the report stays small however damaged the file is.
+ * The report also counts the descriptions that were shared with an equal one already loaded.
+ */
+public class LoadReport {
+    /** Maximum number of malformed lines kept as examples */
+    private static final int MAX_SAMPLES = 5;
+
+    /** Total number of malformed lines seen */
+    private long malformedCount;
+
+    /** The first malformed lines, prefixed with their line numbers */
+    private final List<String> samples = new ArrayList<>();
+
+    /** Number of descriptions shared with an equal one, counted without locking as parallel loads share it */
+    private final LongAdder deduplicatedCount = new LongAdder();
+
+    /** Approximate heap bytes saved by sharing descriptions */
+    private final LongAdder bytesSaved = new LongAdder();
+
+    /**
+     * Records a line that could not be parsed.
+     *
+     * @param lineNumber one-based line number in the file
+     * @param line the content of the line
+     */
+    public void recordMalformed(long lineNumber, String line) {
+        recordMalformed("", lineNumber, line);
+    }
+
+    /**
+     * Records a line of another file, such as a journal segment, that could not be parsed or applied.
+     *
+     * @param file the name of the file the line is in, or an empty string for the task file
+     * @param lineNumber one-based line number in that file
+     * @param line the content of the line
+     */
+    public synchronized void recordMalformed(String file, long lineNumber, String line) {
+        malformedCount++;
+        if (samples.size() < MAX_SAMPLES) {
+            samples.add((file.isEmpty() ? "" : file + " ") + "line " + lineNumber + ": " + line);
+        }
+    }
+
+    /**
+     * Records a description that was replaced by an equal one already loaded.
+     *
+     * @param bytes the approximate heap size of the description that is no longer kept
+     */
+    public void recordDeduplicated(long bytes) {
+        deduplicatedCount.increment();
+        bytesSaved.add(bytes);
+    }
+
+    /**
+     * Returns the number of descriptions shared with an equal one already loaded.
+     *
+     * @return number of descriptions deduplicated
+     */
+    public long getDeduplicatedCount() {
+        return deduplicatedCount.sum();
+    }
+
+    /**
+     * Returns the approximate heap bytes saved by sharing descriptions.
+     *
+     * @return bytes saved
+     */
+    public long getBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    /**
+     * Returns the total number of malformed lines seen.
+     *
+     * @return number of lines skipped
+     */
+    public synchronized long getMalformedCount() {
+        return malformedCount;
+    }
+
+    /**
+     * Returns whether every line seen so far was parsed successfully.
+     *
+     * @return {@code true} if no malformed line was recorded
+     */
+    public synchronized boolean isClean() {
+        return malformedCount == 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Skipped ").append(malformedCount).append(" invalid line(s)");
+        for (String sample : samples) {
+            sb.append("\n    ").append(sample);
+        }
+        if (malformedCount > samples.size()) {
+            sb.append("\n    ...");
+        }
+        return sb.toString();
+    }
+}
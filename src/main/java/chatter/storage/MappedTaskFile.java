@@ -0,0 +1,195 @@
+package chatter.storage;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import chatter.exception.ChatterException;
+import chatter.task.Task;
+import chatter.task.TaskSource;
+
+/**
+ * {@link TaskSource} that decodes tasks on demand straight from a memory-mapped task file,
+ * in either {@link StorageFormat}. Every record is checked while the file is scanned, without being decoded,
+ * by {@link SaveFormatCheck} or {@link BinaryTaskCodec#skipTask(ByteBuffer)}, and only the bounds of the valid
+ * ones are kept on the heap until a task is accessed. As with {@link LazyTaskFile},
+ * malformed records are reported and skipped up front, so indexes are the same as after a full load.
+ * <p>
+ * A mapping cannot be released explicitly and lasts until it is garbage collected, and on Windows a mapped
+ * file cannot be replaced. So the task file itself is never mapped: it is copied to a temporary file that
+ * is deleted once closed, and the copy is mapped instead, leaving the first save free to replace the task file.
+ * </p>
+ */
+class MappedTaskFile implements TaskSource {
+    /** Read-only mapping of the copy of the task file, or {@code null} once materialized */
+    private MappedByteBuffer content;
+
+    /** Offset of the start of each valid record */
+    private int[] starts;
+
+    /** Offset just past each valid record, including its line terminator in the text format */
+    private int[] ends;
+
+    /** Number of valid records in the file */
+    private final int recordCount;
+
+    /** Whether the file is in the binary format */
+    private final boolean isBinary;
+
+    /** Tasks materialized so far, indexed by valid record */
+    private final Task[] materialized;
+
+    /** Pool the descriptions of decoded tasks are shared through */
+    private final DescriptionPool descriptions;
+
+    /**
+     * Maps a copy of {@code filePath} and scans it for valid records, recording the others in {@code report}.
+     *
+     * @param filePath the task file to map, at most 2 GiB in size
+     * @param isBinary whether the file is in the binary format
+     * @param report the report receiving malformed records
+     * @param descriptions the pool the descriptions of decoded tasks are shared through
+     * @throws IOException if the file cannot be copied or mapped or its header is invalid;
+     *     a corrupt record is reported instead and ends the file
+     */
+    MappedTaskFile(Path filePath, boolean isBinary, LoadReport report, DescriptionPool descriptions)
+            throws IOException {
+        this.isBinary = isBinary;
+        this.descriptions = descriptions;
+        Path copy = Files.createTempFile("chatter", ".mapped");
+        try {
+            Files.copy(filePath, copy, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.delete(copy);
+            throw e;
+        }
+        // The copy is unlinked straight away where the platform allows it, and otherwise once the mapping is gone.
+        try (FileChannel channel = FileChannel.open(copy, StandardOpenOption.READ,
+                StandardOpenOption.DELETE_ON_CLOSE)) {
+            this.content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int[] recordStarts = new int[1024];
+        int[] recordEnds = new int[1024];
+        int count = 0;
+        long recordNumber = 0;
+        ByteBuffer scan = content.duplicate();
+        if (isBinary) {
+            BinaryTaskCodec.readHeader(scan);
+        }
+        while (scan.hasRemaining()) {
+            recordNumber++;
+            int start = scan.position();
+            if (isBinary) {
+                try {
+                    BinaryTaskCodec.skipTask(scan);
+                } catch (BufferUnderflowException e) {
+                    report.recordMalformed(recordNumber, "truncated record");
+                    break;
+                } catch (IOException e) {
+                    report.recordMalformed(recordNumber, e.getMessage());
+                    break;
+                } catch (ChatterException e) {
+                    report.recordMalformed(recordNumber, e.getMessage());
+                    continue;
+                }
+            } else {
+                while (scan.hasRemaining() && scan.get() != '\n') {
+                    // Advance to the end of the line.
+                }
+                if (!SaveFormatCheck.isValid(scan, start, contentEnd(scan, start, scan.position()))) {
+                    report.recordMalformed(recordNumber, readLine(scan, start, scan.position()));
+                    continue;
+                }
+            }
+            if (count == recordStarts.length) {
+                recordStarts = Arrays.copyOf(recordStarts, count * 2);
+                recordEnds = Arrays.copyOf(recordEnds, count * 2);
+            }
+            recordStarts[count] = start;
+            recordEnds[count] = scan.position();
+            count++;
+        }
+        this.starts = recordStarts;
+        this.ends = recordEnds;
+        this.recordCount = count;
+        this.materialized = new Task[count];
+    }
+
+    @Override
+    public int size() {
+        return recordCount;
+    }
+
+    @Override
+    public synchronized Task get(int index) throws ChatterException {
+        if (index < 0 || index >= recordCount) {
+            throw new ChatterException("You don't have that many task!");
+        }
+        if (materialized[index] == null) {
+            materialized[index] = decode(index);
+        }
+        return materialized[index];
+    }
+
+    @Override
+    public synchronized ArrayList<Task> materialize() {
+        ArrayList<Task> tasks = new ArrayList<>(recordCount);
+        for (int i = 0; i < recordCount; i++) {
+            try {
+                tasks.add(get(i));
+            } catch (ChatterException e) {
+                // Not expected, as every record was checked when scanned and the copy is private; it is dropped.
+            }
+        }
+        content = null;
+        starts = null;
+        ends = null;
+        return tasks;
+    }
+
+    private Task decode(int index) throws ChatterException {
+        try {
+            if (isBinary) {
+                ByteBuffer record = content.duplicate();
+                record.position(starts[index]).limit(ends[index]);
+                return BinaryTaskCodec.readTask(record, descriptions);
+            }
+            return Task.fromSaveFormat(readLine(content, starts[index], ends[index]), descriptions);
+        } catch (Exception e) {
+            // Not expected, as every record was checked when scanned and the copy is private.
+            throw new ChatterException("Task " + (index + 1) + " could not be read from the save file!");
+        }
+    }
+
+    /**
+     * Reads the line between {@code start} and {@code end} of {@code content}, without its line terminator.
+     */
+    private static String readLine(ByteBuffer content, int start, int end) {
+        end = contentEnd(content, start, end);
+        byte[] bytes = new byte[end - start];
+        content.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the offset just past the line between {@code start} and {@code end}, without its line terminator.
+     */
+    private static int contentEnd(ByteBuffer content, int start, int end) {
+        if (end > start && content.get(end - 1) == '\n') {
+            end--;
+        }
+        if (end > start && content.get(end - 1) == '\r') {
+            end--;
+        }
+        return end;
+    }
+}
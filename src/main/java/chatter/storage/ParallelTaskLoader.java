@@ -0,0 +1,205 @@
+package chatter.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import chatter.task.Task;
+
+/**
+ * Loads a task file by splitting it into line-aligned chunks that are read, decoded and parsed
+ * in parallel on the common fork-join pool. Chunks are merged back in file order, so the tasks
+ * and the {@link LoadReport} are the same as when the file is read sequentially.
+ * Each chunk is read into a buffer of its own rather than mapped, so files of any size can be loaded
+ * and nothing keeps the file open once loading is done.
+ */
+class ParallelTaskLoader {
+    /** Minimum size of a chunk; files smaller than this are parsed on the calling thread */
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+
+    /** Maximum size of a chunk, which bounds the memory each worker holds while decoding */
+    private static final long MAX_CHUNK_BYTES = 1 << 26;
+
+    /** Size of the buffer used to look for the end of the line a chunk boundary falls in */
+    private static final int BOUNDARY_BUFFER_SIZE = 1 << 13;
+
+    /** Number of chunks per worker, so that uneven chunks still keep every worker busy */
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private ParallelTaskLoader() {
+    }
+
+    /**
+     * Reads and parses every line of {@code filePath}.
+     *
+     * @param filePath the task file to read
+     * @param report the report receiving malformed lines
+     * @param descriptions the pool the descriptions are shared through
+     * @return the parsed tasks in file order
+     * @throws IOException if the file cannot be read or is not valid UTF-8
+     */
+    static ArrayList<Task> load(Path filePath, LoadReport report, DescriptionPool descriptions) throws IOException {
+        return load(filePath, report, descriptions, MIN_CHUNK_BYTES);
+    }
+
+    /**
+     * Reads and parses every line of {@code filePath} in chunks of at least {@code minChunkBytes},
+     * so that tests can split a small file into several chunks.
+     *
+     * @param filePath the task file to read
+     * @param report the report receiving malformed lines
+     * @param descriptions the pool the descriptions are shared through
+     * @param minChunkBytes the minimum size of a chunk
+     * @return the parsed tasks in file order
+     * @throws IOException if the file cannot be read or is not valid UTF-8
+     */
+    static ArrayList<Task> load(Path filePath, LoadReport report, DescriptionPool descriptions, long minChunkBytes)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            List<ChunkParser> parsers = new ArrayList<>();
+            for (long[] bounds : split(channel, minChunkBytes)) {
+                parsers.add(new ChunkParser(channel, bounds[0], bounds[1], descriptions));
+            }
+            if (parsers.size() > 1) {
+                parsers.forEach(ChunkParser::fork);
+            }
+            ArrayList<Task> tasks = new ArrayList<>();
+            long firstLineNumber = 1;
+            for (ChunkParser parser : parsers) {
+                ChunkResult result = parsers.size() > 1 ? parser.join() : parser.invoke();
+                if (result.error != null) {
+                    throw result.error;
+                }
+                tasks.addAll(result.tasks);
+                for (int i = 0; i < result.malformedLines.size(); i++) {
+                    report.recordMalformed(firstLineNumber + result.malformedOffsets.get(i),
+                            result.malformedLines.get(i));
+                }
+                firstLineNumber += result.lineCount;
+            }
+            return tasks;
+        }
+    }
+
+    /**
+     * Splits the file read through {@code channel} into chunks whose boundaries fall just after a line feed.
+     *
+     * @return the start and end offset of each chunk
+     * @throws IOException if the file cannot be read or has a line too long to fit in one chunk
+     */
+    private static List<long[]> split(FileChannel channel, long minChunkBytes) throws IOException {
+        long size = channel.size();
+        int workers = ForkJoinPool.getCommonPoolParallelism();
+        long chunkCount = Math.max(1, Math.min(size / minChunkBytes, (long) workers * CHUNKS_PER_WORKER));
+        chunkCount = Math.max(chunkCount, (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        long target = size / chunkCount;
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_BUFFER_SIZE);
+        long start = 0;
+        while (start < size) {
+            long boundary = Math.min(size, start + Math.max(target, 1)) - 1;
+            long end = endOfLine(channel, boundary, buffer);
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("The line of the task file at byte " + boundary + " is too long");
+            }
+            chunks.add(new long[] {start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns the offset just past the first line feed at or after {@code position}, or the file size if none.
+     */
+    private static long endOfLine(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        while (true) {
+            buffer.clear();
+            if (channel.read(buffer, position) <= 0) {
+                return channel.size();
+            }
+            buffer.flip();
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += buffer.limit();
+        }
+    }
+
+    /**
+     * Decodes and parses the lines of one chunk.
+     */
+    private static class ChunkParser extends RecursiveTask<ChunkResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final DescriptionPool descriptions;
+
+        ChunkParser(FileChannel channel, long start, long end, DescriptionPool descriptions) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.descriptions = descriptions;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            ChunkResult result = new ChunkResult();
+            String text;
+            try {
+                ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+                while (bytes.hasRemaining() && channel.read(bytes, start + bytes.position()) > 0) {
+                    // Keep reading until the whole chunk is in the buffer.
+                }
+                bytes.flip();
+                text = StandardCharsets.UTF_8.newDecoder().decode(bytes).toString();
+            } catch (IOException e) {
+                result.error = e;
+                return result;
+            }
+            int lineStart = 0;
+            int length = text.length();
+            while (lineStart < length) {
+                int lineEnd = lineStart;
+                while (lineEnd < length && text.charAt(lineEnd) != '\n' && text.charAt(lineEnd) != '\r') {
+                    lineEnd++;
+                }
+                String line = text.substring(lineStart, lineEnd);
+                try {
+                    result.tasks.add(Task.fromSaveFormat(line, descriptions));
+                } catch (Exception e) {
+                    result.malformedOffsets.add(result.lineCount);
+                    result.malformedLines.add(line);
+                }
+                result.lineCount++;
+                if (lineEnd < length && text.charAt(lineEnd++) == '\r'
+                        && lineEnd < length && text.charAt(lineEnd) == '\n') {
+                    lineEnd++;
+                }
+                lineStart = lineEnd;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Tasks and malformed lines of one chunk, with line numbers relative to the start of the chunk.
+     */
+    private static class ChunkResult {
+        private final List<Task> tasks = new ArrayList<>();
+        private final List<Long> malformedOffsets = new ArrayList<>();
+        private final List<String> malformedLines = new ArrayList<>();
+        private long lineCount;
+        private IOException error;
+    }
+}
@@ -0,0 +1,156 @@
+package chatter.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Month;
+import java.time.Year;
+
+import chatter.task.Task;
+
+/**
+ * Checks lines of the text task file without parsing them into tasks, for the loaders that defer parsing.
+ * <p>
+ * A line of the usual shape is accepted from its bytes alone: a type of {@code T}, {@code D} or {@code E},
+ * as many {@code " | "}-separated fields as the type needs, and {@code yyyy-MM-dd HHmm} date-times with
+ * a four-digit year that are valid as written, the end of an event coming after its start.
+ * Any other line is parsed with {@link Task#fromSaveFormat(String)} instead, so a line is accepted
+ * exactly when a full load would keep it, and a line that was accepted can always be parsed later.
+ * </p>
+ */
+final class SaveFormatCheck {
+    /** Length of a {@code yyyy-MM-dd HHmm} date-time with a four-digit year */
+    private static final int DATE_TIME_LENGTH = 15;
+
+    /** Length of the {@code " | "} separator between fields */
+    private static final int SEPARATOR_LENGTH = 3;
+
+    /** Index of the first date-time field of deadlines and events */
+    private static final int FIRST_DATE_TIME_FIELD = 3;
+
+    private SaveFormatCheck() {
+    }
+
+    /**
+     * Returns whether the line between {@code start} and {@code end} of {@code content} is a valid task.
+     *
+     * @param content the bytes holding the line
+     * @param start the offset of the start of the line
+     * @param end the offset just past the line, without its line terminator
+     * @return {@code true} if the line can be parsed into a task
+     */
+    static boolean isValid(ByteBuffer content, int start, int end) {
+        if (hasUsualShape(content, start, end)) {
+            return true;
+        }
+        byte[] bytes = new byte[end - start];
+        content.get(start, bytes);
+        try {
+            Task.fromSaveFormat(new String(bytes, StandardCharsets.UTF_8));
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether the line has the usual shape of a valid task. Lines that do not may still be valid.
+     */
+    private static boolean hasUsualShape(ByteBuffer content, int start, int end) {
+        if (start == end) {
+            return false;
+        }
+        int fieldCount;
+        switch (content.get(start)) {
+        case 'T':
+            fieldCount = 3;
+            break;
+        case 'D':
+            fieldCount = 4;
+            break;
+        case 'E':
+            fieldCount = 5;
+            break;
+        default:
+            return false;
+        }
+        int fieldStart = start;
+        int fieldEnd = nextSeparator(content, start, end);
+        if (fieldEnd != start + 1) {
+            return false;
+        }
+        int previousStart = -1;
+        for (int field = 1; field < fieldCount; field++) {
+            if (fieldEnd == end) {
+                return false;
+            }
+            previousStart = fieldStart;
+            fieldStart = fieldEnd + SEPARATOR_LENGTH;
+            fieldEnd = nextSeparator(content, fieldStart, end);
+            if (field >= FIRST_DATE_TIME_FIELD && !isDateTime(content, fieldStart, fieldEnd)) {
+                return false;
+            }
+        }
+        if (fieldCount == 5) {
+            return compare(content, previousStart, fieldStart, DATE_TIME_LENGTH) < 0;
+        }
+        // A to-do whose description is empty may have lost it with the trailing empty fields.
+        return fieldEnd > fieldStart;
+    }
+
+    /**
+     * Returns the offset of the first {@code " | "} separator at or after {@code from}, or {@code end} if there
+     * is none. Separators are ASCII, so they cannot be part of a multi-byte character.
+     */
+    private static int nextSeparator(ByteBuffer content, int from, int end) {
+        for (int i = from; i + SEPARATOR_LENGTH <= end; i++) {
+            if (content.get(i) == ' ' && content.get(i + 1) == '|' && content.get(i + 2) == ' ') {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Returns whether the field between {@code start} and {@code end} is a valid date-time with a four-digit year.
+     * Date-times of that form also sort in time order as bytes.
+     */
+    private static boolean isDateTime(ByteBuffer content, int start, int end) {
+        if (end - start != DATE_TIME_LENGTH || content.get(start + 4) != '-' || content.get(start + 7) != '-'
+                || content.get(start + 10) != ' ') {
+            return false;
+        }
+        int year = digits(content, start, 4);
+        int month = digits(content, start + 5, 2);
+        int day = digits(content, start + 8, 2);
+        int hour = digits(content, start + 11, 2);
+        int minute = digits(content, start + 13, 2);
+        return year > 0 && month >= 1 && month <= 12 && day >= 1
+                && day <= Month.of(month).length(Year.isLeap(year)) && hour >= 0 && hour <= 23
+                && minute >= 0 && minute <= 59;
+    }
+
+    /**
+     * Returns the value of the {@code count} ASCII digits at {@code start}, or -1 if any is not one.
+     */
+    private static int digits(ByteBuffer content, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = content.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int compare(ByteBuffer content, int first, int second, int length) {
+        for (int i = 0; i < length; i++) {
+            int difference = content.get(first + i) - content.get(second + i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+}
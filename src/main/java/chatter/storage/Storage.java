@@ -1,23 +1,140 @@
 package chatter.storage;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import chatter.metrics.Metrics;
+import chatter.metrics.Phase;
+import chatter.task.ColumnarTaskList;
+import chatter.task.ConcurrentTaskList;
+import chatter.task.IndexedTaskList;
 import chatter.task.Task;
 import chatter.task.TaskList;
 
 /**
  * Storage class is responsible for loading tasks from a file and saving tasks to a file.
  * It provides methods to persist and retrieve a {@link TaskList}.
+ * <p>
+ * In journaled mode, each mutation is appended as a single record to a journal segment
+ * ({@code <file>.journal.<n>}) instead of rewriting the whole file. Once enough records have
+ * accumulated, the segments are folded into a fresh snapshot of the task file in the background.
+ * Removal and status records name a single index or comma-separated runs of indexes such as {@code 2-499,503},
+ * so a bulk change takes one record, and insertion records name the index the task was inserted at.
+ * A snapshot is first written to {@code <file>.partial} and then renamed to
+ * {@code <file>.snapshot.<n>}, which marks it as complete and covering every segment up to {@code n},
+ * so {@link #load()} can always tell which records still have to be replayed after a crash.
+ * </p>
+ * <p>
+ * With a save window set, writes move to a background thread: mutations arriving within the window
+ * are coalesced into one forced write, {@link #flush()} writes out everything recorded so far,
+ * and failures are collected for {@link #takeErrors()} instead of being printed.
+ * </p>
+ * <p>
+ * Between {@link #beginBatch()} and {@link #commitBatch(TaskList)}, mutations are held back and
+ * then persisted together. In the journal, a batch is framed by {@code B} and {@code E} records,
+ * and a batch whose {@code E} record never made it to disk is not replayed.
+ * </p>
  */
 public class Storage {
+    /** Number of journal records after which the journal is compacted into a snapshot */
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    /** Number of lines parsed together when loading the task file */
+    private static final int CHUNK_SIZE = 4096;
+
+    /** Journal record starting a batch of records that is only replayed as a whole */
+    private static final String BATCH_BEGIN = "B";
+
+    /** Journal record ending a batch */
+    private static final String BATCH_END = "E";
+
     /** Path to the file where tasks are stored */
     private final Path filePath;
 
+    /** Whether mutations are appended to a journal instead of rewriting the file */
+    private boolean isJournaled;
+
+    /** Format the task file is written in */
+    private StorageFormat format = StorageFormat.TEXT;
+
+    /** Strategy used to read the task file */
+    private LoadMode loadMode = LoadMode.STREAMING;
+
+    /** Implementation of {@code TaskList} that loaded tasks are kept in */
+    private TaskListBackend backend = TaskListBackend.INDEXED;
+
+    /** Number of slots in the pool that loaded descriptions are shared through, or 0 not to share them */
+    private int descriptionPoolSize;
+
+    /** Pool used by the most recent load, which lazily loaded tasks keep using */
+    private DescriptionPool descriptions;
+
+    /** Malformed lines found by the most recent load */
+    private LoadReport loadReport;
+
+    /** Delay within which mutations are coalesced into a single write, or 0 to write synchronously */
+    private long saveWindowMillis;
+
+    /** Channel of the journal segment last appended to */
+    private FileChannel journal;
+
+    /** Sequence number of the segment {@link #journal} belongs to */
+    private long journalSegment;
+
+    /** Sequence number of the journal segment new records belong to */
+    private long segment;
+
+    /** Journal records not yet written to disk */
+    private final StringBuilder pendingRecords = new StringBuilder();
+
+    /**
+     * Copy of the task list awaiting a deferred full rewrite when not in journaled mode, or {@code null}.
+     * Only the list is copied; it is encoded once per save window, on the background thread.
+     */
+    private List<Task> pendingTasks;
+
+    /** Whether a deferred write has been scheduled */
+    private boolean isFlushScheduled;
+
+    /** Write errors not yet reported to the user */
+    private final List<String> errors = new ArrayList<>();
+
+    /** Records of the batch in progress, or {@code null} when no batch is in progress */
+    private StringBuilder batchRecords;
+
+    /** Number of records in {@link #batchRecords} */
+    private int batchRecordCount;
+
+    /** Number of records appended since the last compaction */
+    private int recordCount;
+
+    /** Whether a background compaction is currently running */
+    private boolean isCompacting;
+
+    /** Single background thread used for compactions and deferred writes */
+    private ScheduledExecutorService worker;
+
+    /** Times the work done for callers and the writes to disk */
+    private Metrics metrics = new Metrics();
+
     /**
      * Constructs a (@link Storage} instance for the specified file path.
      *
@@ -27,52 +144,878 @@ public class Storage {
         this.filePath = Paths.get(filePath);
     }
 
+    /**
+     * Enables or disables journaled mode. Must be called before {@link #load()}.
+     *
+     * @param isJournaled {@code true} to append mutations to a journal instead of rewriting the file
+     */
+    public void setJournaled(boolean isJournaled) {
+        this.isJournaled = isJournaled;
+    }
+
+    /**
+     * Sets the window within which mutations are coalesced into a single write on a background thread.
+     * With a window of 0, the default, every mutation is written before the command returns.
+     * The background thread never reads a {@code TaskList}: it is handed journal records, or a copy of the list
+     * of tasks, which it encodes once per window. Tasks are only changed in place by being marked or unmarked,
+     * and each such change is persisted again after the copy, so a write that sees a newer status is
+     * overwritten by the next one.
+     *
+     * @param saveWindowMillis the window in milliseconds
+     */
+    public void setSaveWindow(long saveWindowMillis) {
+        this.saveWindowMillis = saveWindowMillis;
+    }
+
+    /**
+     * Sets the format the task file is written in. Must be called before {@link #load()}.
+     * A file found in the other format is migrated when it is loaded.
+     *
+     * @param format the format to write
+     */
+    public void setFormat(StorageFormat format) {
+        this.format = format;
+    }
+
+    /**
+     * Sets the strategy used to read the task file. Must be called before {@link #load()}.
+     *
+     * @param loadMode the strategy to use
+     */
+    public void setLoadMode(LoadMode loadMode) {
+        this.loadMode = loadMode;
+    }
+
+    /**
+     * Sets the implementation of {@code TaskList} that loaded tasks are kept in. Must be called before {@link #load()}.
+     * Apart from {@link TaskListBackend#INDEXED}, the whole file is decoded up front, whatever the load mode.
+     *
+     * @param backend the implementation to load into
+     */
+    public void setBackend(TaskListBackend backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * Sets the size of the pool through which tasks loaded with equal descriptions share a single string.
+     * Must be called before {@link #load()}. The pool is bounded and only holds its strings weakly;
+     * the bytes it saved are reported by {@link LoadReport#getBytesSaved()}.
+     *
+     * @param descriptionPoolSize the number of slots in the pool, or 0, the default, not to share descriptions
+     */
+    public void setDescriptionPoolSize(int descriptionPoolSize) {
+        this.descriptionPoolSize = descriptionPoolSize;
+    }
+
+    /**
+     * Sets the metrics that time the work done for callers, as {@link Phase#STORAGE}, and the writes to disk,
+     * as {@link Phase#SAVE}.
+     *
+     * @param metrics the metrics of the session
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Loads tasks from the file.
      * If the file does not exist, creates a new file and returns an empty {@code TaskList}.
-     * Invalid lines in the file are skipped with a message printed to standard output.
+     * The file is read as a stream and parsed in chunks of lines. Invalid lines are skipped and
+     * summarized in a bounded {@link LoadReport}, which is printed to standard error if not clean.
+     * In journaled mode, any interrupted compaction is completed and the remaining journal
+     * records are replayed on top of the snapshot.
+     * In {@link LoadMode#LAZY} and {@link LoadMode#MAPPED} mode, tasks are only parsed when first accessed,
+     * unless there are journal records to replay or the file has to be migrated.
+     * Apart from {@link LoadMode#MAPPED}, a binary file is always decoded up front. If the file is not in the
+     * configured {@link StorageFormat}, it is rewritten in that format straight away.
      *
      * @return a {@code TaskList} containing tasks loaded from the file, or an empty list if the file is missing
      */
-    public TaskList load() {
-        ArrayList<Task> tasks = new ArrayList<>();
+    public synchronized TaskList load() {
+        loadReport = new LoadReport();
+        descriptions = new DescriptionPool(descriptionPoolSize, loadReport);
         try {
+            if (isJournaled) {
+                recoverSnapshot();
+            }
             if (!Files.exists(filePath)) {
-                Files.createDirectories(filePath.getParent());
+                Files.createDirectories(filePath.toAbsolutePath().getParent());
                 Files.createFile(filePath);
-                return new TaskList();
             }
-            List<String> lines = Files.readAllLines(filePath);
-            for (String line: lines) {
-                try {
-                    tasks.add(Task.fromSaveFormat(line));
-                } catch (Exception e) {
-                    System.out.println("    Invalid line: " + line);
-                }
+            boolean isBinary = BinaryTaskCodec.isBinary(filePath);
+            boolean isMigrating = isBinary != (format == StorageFormat.BINARY);
+            boolean isDeferrable = !isMigrating && backend == TaskListBackend.INDEXED
+                    && (!isJournaled || listSegments().isEmpty());
+            if (isDeferrable && loadMode == LoadMode.MAPPED && Files.size(filePath) <= Integer.MAX_VALUE) {
+                MappedTaskFile source = new MappedTaskFile(filePath, isBinary, loadReport, descriptions);
+                printLoadReport();
+                return new IndexedTaskList(source);
+            }
+            if (isDeferrable && loadMode == LoadMode.LAZY && !isBinary) {
+                LazyTaskFile source = new LazyTaskFile(filePath, loadReport, descriptions);
+                printLoadReport();
+                return new IndexedTaskList(source);
             }
+            ArrayList<Task> tasks;
+            if (isBinary) {
+                tasks = BinaryTaskCodec.decode(filePath, loadReport, descriptions);
+            } else if (loadMode == LoadMode.PARALLEL) {
+                tasks = ParallelTaskLoader.load(filePath, loadReport, descriptions);
+            } else {
+                tasks = readTasks();
+            }
+            boolean isReplayed = isJournaled && replayJournal(tasks);
+            if (isMigrating && !isReplayed) {
+                writeAtomically(encode(tasks));
+            }
+            printLoadReport();
+            return createTaskList(tasks);
         } catch (IOException e) {
-            System.out.println("    Error loading file: " + e.getMessage() + ". Generating an empty tracker!");
-            return new TaskList();
+            System.err.println("    Error loading file: " + e.getMessage() + ". Generating an empty tracker!");
+            return createTaskList(new ArrayList<>());
+        }
+    }
+
+    private void printLoadReport() {
+        if (!loadReport.isClean()) {
+            System.err.println("    " + loadReport);
+        }
+    }
+
+    private TaskList createTaskList(ArrayList<Task> tasks) {
+        switch (backend) {
+        case COLUMNAR:
+            return new ColumnarTaskList(tasks);
+        case CONCURRENT:
+            return new ConcurrentTaskList(tasks);
+        default:
+            return new IndexedTaskList(tasks);
         }
-        return new TaskList(tasks);
     }
 
     /**
-     * Saves the given {@code TaskList} to the file.
+     * Returns the report of malformed lines from the most recent {@link #load()}.
+     *
+     * @return the load report, or {@code null} if nothing has been loaded yet
+     */
+    public synchronized LoadReport getLoadReport() {
+        return loadReport;
+    }
+
+    /**
+     * Saves the given {@code TaskList} to the file, discarding any write still pending for it.
      * Each task is converted to its save format before writing.
-     * Any I/O errors are reported via standard output.
+     * In journaled mode, this also folds the journal into the new snapshot.
+     * Blocks until the file has been written; I/O errors are reported through {@link #takeErrors()}.
      *
      * @param tasks the {@code TaskList} to save to the file
      */
     public void save(TaskList tasks) {
-        List<String> lines = new ArrayList<>();
-        for (Task t: tasks.getAllTasks()) {
-            lines.add(t.toSaveFormat());
+        Future<?> write;
+        synchronized (this) {
+            byte[] content = encode(tasks.getAllTasks());
+            if (isJournaled) {
+                awaitCompaction();
+                String records = takePendingRecords();
+                long covered = segment++;
+                recordCount = 0;
+                write = submitIo(() -> {
+                    appendRecords(records, covered);
+                    closeJournal();
+                    writeSnapshot(content, covered);
+                });
+            } else {
+                pendingTasks = null;
+                write = submitIo(() -> Files.write(filePath, content));
+            }
+        }
+        await(write);
+    }
+
+    /**
+     * Persists the addition of {@code task} to the end of {@code tasks}.
+     *
+     * @param task the task that was added
+     * @param tasks the {@code TaskList} after the addition
+     */
+    public synchronized void recordAdd(Task task, TaskList tasks) {
+        record("A " + task.toSaveFormat(), tasks);
+    }
+
+    /**
+     * Persists the insertion of {@code task} at {@code index} in {@code tasks}.
+     *
+     * @param index zero-based index the task was inserted at
+     * @param task the task that was inserted
+     * @param tasks the {@code TaskList} after the insertion
+     */
+    public synchronized void recordInsert(int index, Task task, TaskList tasks) {
+        record("I " + index + " " + task.toSaveFormat(), tasks);
+    }
+
+    /**
+     * Persists the removal of the task at {@code index} from {@code tasks}.
+     *
+     * @param index zero-based index of the removed task
+     * @param tasks the {@code TaskList} after the removal
+     */
+    public synchronized void recordRemove(int index, TaskList tasks) {
+        record("R " + index, tasks);
+    }
+
+    /**
+     * Persists the marking of the task at {@code index} as done.
+     *
+     * @param index zero-based index of the marked task
+     * @param tasks the {@code TaskList} after the change
+     */
+    public synchronized void recordMark(int index, TaskList tasks) {
+        record("M " + index, tasks);
+    }
+
+    /**
+     * Persists the unmarking of the task at {@code index}.
+     *
+     * @param index zero-based index of the unmarked task
+     * @param tasks the {@code TaskList} after the change
+     */
+    public synchronized void recordUnmark(int index, TaskList tasks) {
+        record("U " + index, tasks);
+    }
+
+    /**
+     * Persists the removal of the tasks at every index in {@code indexes} as a single record.
+     *
+     * @param indexes zero-based indexes of the removed tasks, as they were before the removal
+     * @param tasks the {@code TaskList} after the removal
+     */
+    public synchronized void recordRemoveAll(BitSet indexes, TaskList tasks) {
+        record("R " + formatIndexes(indexes), tasks);
+    }
+
+    /**
+     * Persists the marking of the tasks at every index in {@code indexes} as done as a single record.
+     *
+     * @param indexes zero-based indexes of the marked tasks
+     * @param tasks the {@code TaskList} after the change
+     */
+    public synchronized void recordMarkAll(BitSet indexes, TaskList tasks) {
+        record("M " + formatIndexes(indexes), tasks);
+    }
+
+    /**
+     * Persists the unmarking of the tasks at every index in {@code indexes} as a single record.
+     *
+     * @param indexes zero-based indexes of the unmarked tasks
+     * @param tasks the {@code TaskList} after the change
+     */
+    public synchronized void recordUnmarkAll(BitSet indexes, TaskList tasks) {
+        record("U " + formatIndexes(indexes), tasks);
+    }
+
+    /**
+     * Starts holding back mutations until {@link #commitBatch(TaskList)} or {@link #abortBatch()}.
+     */
+    public synchronized void beginBatch() {
+        batchRecords = new StringBuilder();
+        batchRecordCount = 0;
+    }
+
+    /**
+     * Persists every mutation recorded since {@link #beginBatch()} as a single unit.
+     *
+     * @param tasks the {@code TaskList} after the batch
+     */
+    public synchronized void commitBatch(TaskList tasks) {
+        StringBuilder records = batchRecords;
+        int count = batchRecordCount;
+        batchRecords = null;
+        if (count == 0) {
+            return;
+        }
+        long start = metrics.start();
+        if (isJournaled) {
+            pendingRecords.append(BATCH_BEGIN).append('\n').append(records).append(BATCH_END).append('\n');
+            recordCount += count;
+        }
+        persist(tasks);
+        metrics.record(Phase.STORAGE, start);
+    }
+
+    /**
+     * Discards the mutations recorded since {@link #beginBatch()}.
+     */
+    public synchronized void abortBatch() {
+        batchRecords = null;
+    }
+
+    /**
+     * Writes out every mutation recorded so far and waits until it is on disk.
+     */
+    public void flush() {
+        long start = metrics.start();
+        Future<?> write;
+        synchronized (this) {
+            write = submitIo(takePendingWrite());
+        }
+        await(write);
+        metrics.record(Phase.STORAGE, start);
+    }
+
+    /**
+     * Returns the combined size of the task file and its journal segments on disk.
+     *
+     * @return the size in bytes, leaving out any file that cannot be read
+     */
+    public long getDiskUsage() {
+        long bytes = 0;
+        try {
+            if (Files.exists(filePath)) {
+                bytes += Files.size(filePath);
+            }
+            for (Path segment : listSegments().values()) {
+                bytes += Files.size(segment);
+            }
+        } catch (IOException e) {
+            // A file was removed by a compaction while being listed; the rest is still counted.
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the write errors that occurred since the last call, so they can be shown to the user.
+     *
+     * @return messages describing the failed writes, oldest first
+     */
+    public synchronized List<String> takeErrors() {
+        List<String> taken = new ArrayList<>(errors);
+        errors.clear();
+        return taken;
+    }
+
+    /**
+     * Flushes pending writes, waits for any background compaction and releases the journal.
+     * The journal itself is kept on disk and replayed on the next {@link #load()}.
+     */
+    public void close() {
+        flush();
+        Future<?> release;
+        synchronized (this) {
+            awaitCompaction();
+            release = submitIo(this::closeJournal);
+        }
+        await(release);
+        synchronized (this) {
+            if (worker != null) {
+                worker.shutdown();
+                worker = null;
+            }
+        }
+    }
+
+    /**
+     * Records a journal entry, or rewrites the whole file when not in journaled mode.
+     * During a batch, the entry is only held back.
+     */
+    private void record(String entry, TaskList tasks) {
+        if (batchRecords != null) {
+            batchRecords.append(entry).append('\n');
+            batchRecordCount++;
+            return;
+        }
+        long start = metrics.start();
+        if (isJournaled) {
+            pendingRecords.append(entry).append('\n');
+            recordCount++;
+        }
+        persist(tasks);
+        metrics.record(Phase.STORAGE, start);
+    }
+
+    /**
+     * Writes the journal records appended to {@link #pendingRecords}, or the whole file when not in
+     * journaled mode. With a save window, the write is deferred so that a burst of mutations is written at once;
+     * without one, journal records are on disk before this returns.
+     */
+    private void persist(TaskList tasks) {
+        boolean isAsync = saveWindowMillis > 0;
+        if (!isJournaled) {
+            if (isAsync) {
+                pendingTasks = List.copyOf(tasks.getAllTasks());
+                scheduleFlush();
+            } else {
+                save(tasks);
+            }
+            return;
+        }
+        if (recordCount >= COMPACTION_THRESHOLD && !isCompacting) {
+            compactInBackground(tasks);
+        } else if (isAsync) {
+            scheduleFlush();
+        } else {
+            await(submitIo(takePendingWrite()));
+        }
+    }
+
+    /**
+     * Takes the writes that are pending so they can be performed outside the lock.
+     */
+    private IoAction takePendingWrite() {
+        if (isJournaled) {
+            String records = takePendingRecords();
+            long target = segment;
+            return () -> appendRecords(records, target);
         }
+        List<Task> snapshot = pendingTasks;
+        pendingTasks = null;
+        return () -> {
+            if (snapshot != null) {
+                Files.write(filePath, encode(snapshot));
+            }
+        };
+    }
+
+    private String takePendingRecords() {
+        String records = pendingRecords.toString();
+        pendingRecords.setLength(0);
+        return records;
+    }
+
+    /**
+     * Schedules the pending writes to be performed once the save window has passed,
+     * unless a write is already scheduled.
+     */
+    private void scheduleFlush() {
+        if (isFlushScheduled) {
+            return;
+        }
+        isFlushScheduled = true;
+        worker().schedule(() -> {
+            IoAction write;
+            synchronized (this) {
+                isFlushScheduled = false;
+                write = takePendingWrite();
+            }
+            runIo(write);
+        }, saveWindowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Folds the journal into a snapshot on the background thread.
+     * The snapshot is encoded on the calling thread since {@link TaskList} is not thread-safe.
+     */
+    private void compactInBackground(TaskList tasks) {
+        byte[] content = encode(tasks.getAllTasks());
+        String records = takePendingRecords();
+        long covered = segment++;
+        recordCount = 0;
+        isCompacting = true;
+        boolean isAsync = saveWindowMillis > 0;
+        if (!isAsync) {
+            runIo(() -> {
+                appendRecords(records, covered);
+                closeJournal();
+            });
+        }
+        worker().execute(() -> {
+            if (isAsync) {
+                runIo(() -> {
+                    appendRecords(records, covered);
+                    closeJournal();
+                });
+            }
+            runIo(() -> writeSnapshot(content, covered));
+            synchronized (this) {
+                isCompacting = false;
+                notifyAll();
+            }
+        });
+    }
+
+    /**
+     * Blocks until the running background compaction, if any, has finished.
+     */
+    private void awaitCompaction() {
+        while (isCompacting) {
+            try {
+                wait(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Performs {@code action} on the background thread when a save window is set,
+     * or straight away otherwise.
+     *
+     * @return the pending background write, or {@code null} if it was performed straight away
+     */
+    private Future<?> submitIo(IoAction action) {
+        if (saveWindowMillis > 0) {
+            return worker().submit(() -> runIo(action));
+        }
+        runIo(action);
+        return null;
+    }
+
+    /**
+     * Performs {@code action}, turning any I/O error into a message for {@link #takeErrors()}.
+     */
+    private void runIo(IoAction action) {
+        long start = metrics.start();
         try {
-            Files.write(filePath, lines);
+            action.run();
         } catch (IOException e) {
-            System.out.println("    Error saving file: " + e.getMessage());
+            synchronized (this) {
+                errors.add("Error saving file: " + e.getMessage());
+            }
+        }
+        metrics.record(Phase.SAVE, start);
+    }
+
+    private static void await(Future<?> write) {
+        if (write == null) {
+            return;
+        }
+        try {
+            write.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private synchronized ScheduledExecutorService worker() {
+        if (worker == null) {
+            worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "chatter-storage");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return worker;
+    }
+
+    /**
+     * Appends journal records to segment {@code target}, switching segments if necessary.
+     * Only ever called by the thread that owns the journal: the caller without a save window,
+     * the background thread with one. The records are forced to disk before this returns, so without a
+     * save window a mutation is durable once the command returns, and with one once the window has passed.
+     */
+    private void appendRecords(String records, long target) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (journal != null && journalSegment != target) {
+            closeJournal();
+        }
+        if (journal == null) {
+            journal = FileChannel.open(segmentPath(target),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            journalSegment = target;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(records.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            journal.write(buffer);
+        }
+        journal.force(false);
+    }
+
+    private void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    /**
+     * Writes a snapshot covering all journal segments up to {@code covered}, then removes those segments.
+     */
+    private void writeSnapshot(byte[] content, long covered) throws IOException {
+        Path snapshot = siblingPath(".snapshot." + covered);
+        Files.move(writePartial(content), snapshot, StandardCopyOption.ATOMIC_MOVE);
+        installSnapshot(snapshot, covered);
+    }
+
+    /**
+     * Replaces the task file with {@code content} without ever leaving a half-written file in its place.
+     */
+    private void writeAtomically(byte[] content) throws IOException {
+        Files.move(writePartial(content), filePath, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes {@code content} to {@code <file>.partial} and forces it to disk.
+     */
+    private Path writePartial(byte[] content) throws IOException {
+        Path partial = siblingPath(".partial");
+        Files.write(partial, content);
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        return partial;
+    }
+
+    /**
+     * Deletes the journal segments covered by a complete snapshot and moves it over the task file.
+     */
+    private void installSnapshot(Path snapshot, long covered) throws IOException {
+        for (Path path : listSegments().headMap(covered, true).values()) {
+            Files.deleteIfExists(path);
+        }
+        Files.move(snapshot, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Completes a compaction that was interrupted by a crash, discarding any half-written snapshot.
+     * Only the newest complete snapshot is installed, since it covers every segment the older ones do.
+     */
+    private void recoverSnapshot() throws IOException {
+        Files.deleteIfExists(siblingPath(".partial"));
+        String prefix = filePath.getFileName() + ".snapshot.";
+        TreeMap<Long, Path> snapshots = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory(), prefix + "*")) {
+            for (Path snapshot : stream) {
+                try {
+                    snapshots.put(Long.parseLong(snapshot.getFileName().toString().substring(prefix.length())),
+                            snapshot);
+                } catch (NumberFormatException e) {
+                    // Not a snapshot written by this class.
+                }
+            }
+        }
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        for (Path older : snapshots.headMap(snapshots.lastKey()).values()) {
+            Files.deleteIfExists(older);
+        }
+        installSnapshot(snapshots.lastEntry().getValue(), snapshots.lastKey());
+    }
+
+    /**
+     * Streams the task file, parsing it in chunks of {@link #CHUNK_SIZE} lines.
+     */
+    private ArrayList<Task> readTasks() throws IOException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+        long firstLineNumber = 1;
+        try (BufferedReader reader = Files.newBufferedReader(filePath)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                chunk.add(line);
+                if (chunk.size() == CHUNK_SIZE) {
+                    parseChunk(chunk, firstLineNumber, tasks, loadReport, descriptions);
+                    firstLineNumber += chunk.size();
+                    chunk.clear();
+                }
+            }
         }
+        parseChunk(chunk, firstLineNumber, tasks, loadReport, descriptions);
+        return tasks;
+    }
+
+    /**
+     * Parses a chunk of consecutive lines into {@code tasks}, recording malformed lines in {@code report}.
+     */
+    private static void parseChunk(List<String> lines, long firstLineNumber, List<Task> tasks, LoadReport report,
+            DescriptionPool descriptions) {
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            try {
+                tasks.add(Task.fromSaveFormat(line, descriptions));
+            } catch (Exception e) {
+                report.recordMalformed(firstLineNumber + i, line);
+            }
+        }
+    }
+
+    /**
+     * Applies the records of every remaining journal segment to {@code tasks}, in order,
+     * then compacts them so that new records start from a clean segment.
+     * A torn or otherwise unreadable record is skipped and reported in the {@link LoadReport}.
+     *
+     * @return whether any segment was replayed and compacted
+     */
+    private boolean replayJournal(ArrayList<Task> tasks) throws IOException {
+        TreeMap<Long, Path> segments = listSegments();
+        if (segments.isEmpty()) {
+            return false;
+        }
+        for (Path path : segments.values()) {
+            String name = path.getFileName().toString();
+            List<String> entries = Files.readAllLines(path);
+            int batchStart = -1;
+            for (int i = 0; i < entries.size(); i++) {
+                String entry = entries.get(i);
+                if (entry.equals(BATCH_BEGIN)) {
+                    batchStart = i + 1;
+                } else if (entry.equals(BATCH_END) && batchStart >= 0) {
+                    for (int j = batchStart; j < i; j++) {
+                        replayRecord(name, j + 1, entries.get(j), tasks);
+                    }
+                    batchStart = -1;
+                } else if (batchStart < 0) {
+                    replayRecord(name, i + 1, entry, tasks);
+                }
+            }
+            // A batch without its end record was cut short by a crash and is dropped.
+        }
+        segment = segments.lastKey() + 1;
+        writeSnapshot(encode(tasks), segments.lastKey());
+        return true;
+    }
+
+    /**
+     * Applies the record on line {@code lineNumber} of segment {@code segmentName} to {@code tasks},
+     * reporting it in the {@link LoadReport} if it cannot be applied.
+     */
+    private void replayRecord(String segmentName, long lineNumber, String entry, ArrayList<Task> tasks) {
+        try {
+            applyRecord(entry, tasks, descriptions);
+        } catch (Exception e) {
+            loadReport.recordMalformed(segmentName, lineNumber, entry);
+        }
+    }
+
+    /**
+     * Applies a single journal record to {@code tasks}.
+     */
+    private static void applyRecord(String entry, ArrayList<Task> tasks, DescriptionPool descriptions)
+            throws Exception {
+        String argument = entry.substring(2);
+        char kind = entry.charAt(0);
+        if (kind == 'A') {
+            tasks.add(Task.fromSaveFormat(argument, descriptions));
+            return;
+        }
+        if (kind == 'I') {
+            int space = argument.indexOf(' ');
+            int index = Integer.parseInt(argument.substring(0, space));
+            tasks.add(index, Task.fromSaveFormat(argument.substring(space + 1), descriptions));
+            return;
+        }
+        BitSet indexes = parseIndexes(argument);
+        if (indexes.length() > tasks.size()) {
+            throw new IndexOutOfBoundsException("Journal record refers to task " + indexes.length());
+        }
+        switch (kind) {
+        case 'R':
+            int kept = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                if (!indexes.get(i)) {
+                    tasks.set(kept++, tasks.get(i));
+                }
+            }
+            tasks.subList(kept, tasks.size()).clear();
+            break;
+        case 'M':
+            for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+                tasks.get(i).markAsDone();
+            }
+            break;
+        case 'U':
+            for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+                tasks.get(i).unmark();
+            }
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown journal record");
+        }
+    }
+
+    /**
+     * Formats {@code indexes} as comma-separated runs such as {@code 2-499,503}, the last index of a run inclusive.
+     */
+    private static String formatIndexes(BitSet indexes) {
+        StringBuilder sb = new StringBuilder();
+        for (int from = indexes.nextSetBit(0); from >= 0; from = indexes.nextSetBit(from)) {
+            int to = indexes.nextClearBit(from) - 1;
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(from);
+            if (to > from) {
+                sb.append('-').append(to);
+            }
+            from = to + 1;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses indexes written by {@link #formatIndexes(BitSet)}, which includes a single index.
+     */
+    private static BitSet parseIndexes(String text) {
+        BitSet indexes = new BitSet();
+        for (String run : text.split(",")) {
+            int dash = run.indexOf('-');
+            if (dash < 0) {
+                indexes.set(Integer.parseInt(run));
+            } else {
+                int from = Integer.parseInt(run.substring(0, dash));
+                int to = Integer.parseInt(run.substring(dash + 1));
+                if (from < 0 || to < from) {
+                    throw new IllegalArgumentException("Invalid index run " + run);
+                }
+                indexes.set(from, to + 1);
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Returns the existing journal segments keyed by their sequence number.
+     */
+    private TreeMap<Long, Path> listSegments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        String prefix = filePath.getFileName() + ".journal.";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory(), prefix + "*")) {
+            for (Path path : stream) {
+                try {
+                    segments.put(Long.parseLong(path.getFileName().toString().substring(prefix.length())), path);
+                } catch (NumberFormatException e) {
+                    // Not a journal segment, leave it alone.
+                }
+            }
+        }
+        return segments;
+    }
+
+    private Path segmentPath(long sequence) {
+        return siblingPath(".journal." + sequence);
+    }
+
+    private Path siblingPath(String suffix) {
+        return directory().resolve(filePath.getFileName() + suffix);
+    }
+
+    private Path directory() {
+        return filePath.toAbsolutePath().getParent();
+    }
+
+    /**
+     * Encodes {@code tasks} as the content of a task file in the configured format.
+     */
+    private byte[] encode(List<Task> tasks) {
+        if (format == StorageFormat.BINARY) {
+            return BinaryTaskCodec.encode(tasks);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Task t: tasks) {
+            sb.append(t.toSaveFormat()).append(System.lineSeparator());
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A write to perform, possibly on the background thread.
+     */
+    private interface IoAction {
+        void run() throws IOException;
     }
 }
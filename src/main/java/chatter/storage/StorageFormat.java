@@ -0,0 +1,13 @@
+package chatter.storage;
+
+/**
+ * Formats {@link Storage} can write the task file in.
+ * Either format is recognized when loading, so switching formats migrates the file on the next load.
+ */
+public enum StorageFormat {
+    /** Human-readable lines such as {@code D | 0 | description | yyyy-MM-dd HHmm}. */
+    TEXT,
+
+    /** Compact, versioned binary records; see {@link BinaryTaskCodec}. */
+    BINARY
+}
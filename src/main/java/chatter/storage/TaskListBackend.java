@@ -0,0 +1,20 @@
+package chatter.storage;
+
+import chatter.task.ColumnarTaskList;
+import chatter.task.ConcurrentTaskList;
+import chatter.task.IndexedTaskList;
+import chatter.task.TaskList;
+
+/**
+ * Implementations of {@link TaskList} that {@link Storage} can load tasks into.
+ */
+public enum TaskListBackend {
+    /** An {@link IndexedTaskList} of task objects with keyword and date indexes. */
+    INDEXED,
+
+    /** A {@link ColumnarTaskList}, which keeps tasks in parallel primitive arrays. */
+    COLUMNAR,
+
+    /** A {@link ConcurrentTaskList}, which other threads can read from without locking while it changes. */
+    CONCURRENT
+}
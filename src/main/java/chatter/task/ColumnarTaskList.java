@@ -0,0 +1,749 @@
+package chatter.task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import chatter.exception.ChatterException;
+
+/**
+ * {@link TaskList} that keeps its tasks in parallel primitive arrays instead of one object graph per task.
+ * <p>
+ * Each task is a row: its type is a {@code byte}, its due date or start and end times are epoch minutes
+ * in {@code long[]} columns, its status is a bit in a {@link BitSet}, and its description is packed into
+ * a shared byte arena, one byte per character for ASCII text and two otherwise. The list order is an
+ * {@code int[]} of rows, and duplicates are detected with an open-addressing table of rows.
+ * {@code list}, {@code find}, {@code on} and {@code between} scan these arrays directly.
+ * </p>
+ * <p>
+ * {@link Task} objects are only created at the API boundary. Every call that returns tasks creates new
+ * copies, so changes must go through this list. As in the binary task file format, times are kept to the minute.
+ * </p>
+ */
+public class ColumnarTaskList implements TaskList {
+    /** Row types, as in the save format */
+    private static final byte TODO = 'T';
+    private static final byte DEADLINE = 'D';
+    private static final byte EVENT = 'E';
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Dead rows tolerated before the columns are compacted, so small lists are not copied on every removal */
+    private static final int MIN_COMPACTION_ROWS = 1024;
+
+    /** Hash table slot that has never held a row */
+    private static final int EMPTY = 0;
+
+    /** Hash table slot whose row was removed */
+    private static final int TOMBSTONE = -1;
+
+    /** Type of each row */
+    private byte[] types;
+
+    /** Due date of each deadline and start of each event, in minutes since the epoch */
+    private long[] firstTimes;
+
+    /** End of each event, in minutes since the epoch */
+    private long[] secondTimes;
+
+    /** Offset of each row's description in {@link #text} */
+    private int[] textStarts;
+
+    /** Length in bytes of each row's description in {@link #text} */
+    private int[] textLengths;
+
+    /** Rows whose tasks are done */
+    private final BitSet done = new BitSet();
+
+    /** Rows whose descriptions are not ASCII and are stored as two big-endian bytes per character */
+    private final BitSet wide = new BitSet();
+
+    /** Arena holding every row's description */
+    private byte[] text;
+
+    /** Number of bytes used in {@link #text} */
+    private int textSize;
+
+    /** Number of rows, including rows that are no longer in the list */
+    private int rowCount;
+
+    /** Number of rows that are no longer in the list */
+    private int deadRowCount;
+
+    /** Row of each task, in list order */
+    private int[] order;
+
+    /** Number of tasks in the list */
+    private int size;
+
+    /** Open-addressing table of the rows in the list, each stored as its row plus one */
+    private int[] slots;
+
+    /** Number of slots that are not {@link #EMPTY} */
+    private int usedSlots;
+
+    /** Changes made since {@link #beginTransaction()}, oldest first, or {@code null} outside a transaction */
+    private ArrayList<Change> transaction;
+
+    /**
+     * Constructs an empty {@code ColumnarTaskList}.
+     */
+    public ColumnarTaskList() {
+        this(Collections.emptyList());
+    }
+
+    /**
+     * Constructs a {@code ColumnarTaskList} holding copies of {@code tasks}.
+     * Duplicates written by older versions are kept, as in {@link IndexedTaskList}.
+     *
+     * @param tasks tasks to initialize the list with, in list order
+     */
+    public ColumnarTaskList(List<Task> tasks) {
+        int capacity = Math.max(INITIAL_CAPACITY, tasks.size());
+        types = new byte[capacity];
+        firstTimes = new long[capacity];
+        secondTimes = new long[capacity];
+        textStarts = new int[capacity];
+        textLengths = new int[capacity];
+        order = new int[capacity];
+        text = new byte[capacity * 16];
+        slots = new int[tableCapacity(capacity)];
+        for (Task t : tasks) {
+            int row = appendRow(t);
+            insertSlot(row);
+            order[size++] = row;
+        }
+    }
+
+    @Override
+    public void add(Task t) throws ChatterException {
+        int row = appendRow(t);
+        if (findEqual(row) >= 0) {
+            rowCount--;
+            textSize = textStarts[row];
+            throw new ChatterException("This task already exists in your task list!");
+        }
+        insertSlot(row);
+        if (size == order.length) {
+            order = Arrays.copyOf(order, size * 2);
+        }
+        order[size++] = row;
+        if (transaction != null) {
+            transaction.add(new Change(Change.Kind.ADDED, size - 1, row, false));
+        }
+    }
+
+    @Override
+    public void insert(int index, Task t) throws ChatterException {
+        if (index < 0 || index > size) {
+            throw new ChatterException("You don't have that many task!");
+        }
+        int row = appendRow(t);
+        if (findEqual(row) >= 0) {
+            rowCount--;
+            textSize = textStarts[row];
+            throw new ChatterException("This task already exists in your task list!");
+        }
+        insertSlot(row);
+        if (size == order.length) {
+            order = Arrays.copyOf(order, size * 2);
+        }
+        System.arraycopy(order, index, order, index + 1, size - index);
+        order[index] = row;
+        size++;
+        if (transaction != null) {
+            transaction.add(new Change(Change.Kind.ADDED, index, row, false));
+        }
+    }
+
+    @Override
+    public void remove(int index) throws ChatterException {
+        int row = rowAt(index);
+        System.arraycopy(order, index + 1, order, index, size - index - 1);
+        size--;
+        removeSlot(row);
+        deadRowCount++;
+        if (transaction != null) {
+            transaction.add(new Change(Change.Kind.REMOVED, index, row, false));
+        }
+        compactRowsIfSparse();
+    }
+
+    @Override
+    public Task get(int index) throws ChatterException {
+        return toTask(rowAt(index));
+    }
+
+    @Override
+    public Task mark(int index) throws ChatterException {
+        int row = rowAt(index);
+        setDone(row, true);
+        return toTask(row);
+    }
+
+    @Override
+    public Task unmark(int index) throws ChatterException {
+        int row = rowAt(index);
+        setDone(row, false);
+        return toTask(row);
+    }
+
+    @Override
+    public List<Task> removeAll(BitSet indexes) throws ChatterException {
+        checkBounds(indexes);
+        ArrayList<Task> removed = new ArrayList<>(indexes.cardinality());
+        int first = indexes.nextSetBit(0);
+        if (first < 0) {
+            return removed;
+        }
+        int kept = first;
+        for (int i = first; i < size; i++) {
+            int row = order[i];
+            if (!indexes.get(i)) {
+                order[kept++] = row;
+                continue;
+            }
+            removed.add(toTask(row));
+            removeSlot(row);
+            deadRowCount++;
+            if (transaction != null) {
+                // Recorded at the index it would have had if the tasks were removed one by one.
+                transaction.add(new Change(Change.Kind.REMOVED, kept, row, false));
+            }
+        }
+        size = kept;
+        compactRowsIfSparse();
+        return removed;
+    }
+
+    @Override
+    public List<Task> markAll(BitSet indexes) throws ChatterException {
+        return setDoneAll(indexes, true);
+    }
+
+    @Override
+    public List<Task> unmarkAll(BitSet indexes) throws ChatterException {
+        return setDoneAll(indexes, false);
+    }
+
+    @Override
+    public BitSet selectDone() {
+        BitSet selected = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (done.get(order[i])) {
+                selected.set(i);
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public BitSet selectMatching(String query) {
+        Matcher matcher = new Matcher(query);
+        BitSet selected = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (matcher.matches(order[i])) {
+                selected.set(i);
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public void beginTransaction() {
+        if (transaction != null) {
+            throw new IllegalStateException("A transaction is already in progress");
+        }
+        transaction = new ArrayList<>();
+    }
+
+    @Override
+    public void commit() {
+        transaction = null;
+        compactRowsIfSparse();
+    }
+
+    /**
+     * Undoes every change made since {@link #beginTransaction()}, newest first, and stops recording.
+     * Rows are not compacted during a transaction, so removed tasks are put back from their old rows.
+     * Does nothing outside a transaction.
+     */
+    @Override
+    public void rollback() {
+        ArrayList<Change> changes = transaction;
+        transaction = null;
+        if (changes == null) {
+            return;
+        }
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            Change change = changes.get(i);
+            switch (change.kind) {
+            case ADDED:
+                System.arraycopy(order, change.index + 1, order, change.index, size - change.index - 1);
+                size--;
+                removeSlot(change.row);
+                deadRowCount++;
+                break;
+            case REMOVED:
+                insertSlot(change.row);
+                if (size == order.length) {
+                    order = Arrays.copyOf(order, size * 2);
+                }
+                System.arraycopy(order, change.index, order, change.index + 1, size - change.index);
+                order[change.index] = change.row;
+                size++;
+                deadRowCount--;
+                break;
+            default:
+                done.set(change.row, change.wasDone);
+                break;
+            }
+        }
+        compactRowsIfSparse();
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns a read-only view of all tasks. Each access to the view creates a new {@code Task},
+     * so the view should not be held on to while the list changes.
+     *
+     * @return unmodifiable {@code List} of tasks.
+     */
+    @Override
+    public List<Task> getAllTasks() {
+        return new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                try {
+                    return ColumnarTaskList.this.get(index);
+                } catch (ChatterException e) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Returns the tasks whose descriptions contain every word of the query, ignoring case.
+     * ASCII descriptions are matched in place in the arena; only the others are decoded.
+     *
+     * @param query the whitespace-separated words to search for in task descriptions
+     * @return a read-only list of the matching tasks, in list order
+     */
+    @Override
+    public List<Task> findMatching(String query) {
+        Matcher matcher = new Matcher(query);
+        List<Task> matches = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (matcher.matches(order[i])) {
+                matches.add(toTask(order[i]));
+            }
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Returns the deadlines due and the events taking place on any day in the given range,
+     * scanning the type and time columns.
+     *
+     * @param from the first day of the range
+     * @param to the last day of the range, inclusive
+     * @return a read-only list of the matching tasks, in list order
+     */
+    @Override
+    public List<Task> findBetween(LocalDate from, LocalDate to) {
+        long low = from.toEpochDay();
+        long high = to.toEpochDay();
+        List<Task> matches = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int row = order[i];
+            byte type = types[row];
+            boolean isMatch;
+            if (type == DEADLINE) {
+                long day = Math.floorDiv(firstTimes[row], MINUTES_PER_DAY);
+                isMatch = day >= low && day <= high;
+            } else if (type == EVENT) {
+                isMatch = Math.floorDiv(firstTimes[row], MINUTES_PER_DAY) <= high
+                        && Math.floorDiv(secondTimes[row], MINUTES_PER_DAY) >= low;
+            } else {
+                isMatch = false;
+            }
+            if (isMatch) {
+                matches.add(toTask(row));
+            }
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    private int rowAt(int index) throws ChatterException {
+        if (index < 0 || index >= size) {
+            throw new ChatterException("You don't have that many task!");
+        }
+        return order[index];
+    }
+
+    private void checkBounds(BitSet indexes) throws ChatterException {
+        if (indexes.length() > size) {
+            throw new ChatterException("You don't have that many task!");
+        }
+    }
+
+    private void setDone(int row, boolean isDone) {
+        if (transaction != null) {
+            transaction.add(new Change(Change.Kind.STATUS, -1, row, done.get(row)));
+        }
+        done.set(row, isDone);
+    }
+
+    private List<Task> setDoneAll(BitSet indexes, boolean isDone) throws ChatterException {
+        checkBounds(indexes);
+        ArrayList<Task> changed = new ArrayList<>(indexes.cardinality());
+        for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+            setDone(order[i], isDone);
+            changed.add(toTask(order[i]));
+        }
+        return changed;
+    }
+
+    /**
+     * Writes {@code t} into a new row and returns the row, without adding it to the list.
+     */
+    private int appendRow(Task t) {
+        if (rowCount == types.length) {
+            int capacity = rowCount * 2;
+            types = Arrays.copyOf(types, capacity);
+            firstTimes = Arrays.copyOf(firstTimes, capacity);
+            secondTimes = Arrays.copyOf(secondTimes, capacity);
+            textStarts = Arrays.copyOf(textStarts, capacity);
+            textLengths = Arrays.copyOf(textLengths, capacity);
+        }
+        int row = rowCount++;
+        if (t instanceof Deadline) {
+            types[row] = DEADLINE;
+            firstTimes[row] = toEpochMinute(((Deadline) t).getDateTime());
+        } else if (t instanceof Event) {
+            types[row] = EVENT;
+            firstTimes[row] = toEpochMinute(((Event) t).getFrom());
+            secondTimes[row] = toEpochMinute(((Event) t).getTo());
+        } else {
+            types[row] = TODO;
+        }
+        done.set(row, t.isDone());
+        writeText(row, t.getDescription());
+        return row;
+    }
+
+    private void writeText(int row, String description) {
+        boolean isWide = false;
+        for (int i = 0; i < description.length() && !isWide; i++) {
+            isWide = description.charAt(i) >= 0x80;
+        }
+        int length = isWide ? description.length() * 2 : description.length();
+        if (textSize + length > text.length) {
+            text = Arrays.copyOf(text, Math.max(text.length * 2, textSize + length));
+        }
+        if (isWide) {
+            for (int i = 0; i < description.length(); i++) {
+                char c = description.charAt(i);
+                text[textSize + 2 * i] = (byte) (c >>> 8);
+                text[textSize + 2 * i + 1] = (byte) c;
+            }
+        } else {
+            for (int i = 0; i < description.length(); i++) {
+                text[textSize + i] = (byte) description.charAt(i);
+            }
+        }
+        wide.set(row, isWide);
+        textStarts[row] = textSize;
+        textLengths[row] = length;
+        textSize += length;
+    }
+
+    private String readText(int row) {
+        int start = textStarts[row];
+        int length = textLengths[row];
+        if (!wide.get(row)) {
+            return new String(text, start, length, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = new char[length / 2];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ((text[start + 2 * i] & 0xFF) << 8 | text[start + 2 * i + 1] & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Creates the {@code Task} stored in {@code row}.
+     */
+    private Task toTask(int row) {
+        String description = readText(row);
+        Task t;
+        switch (types[row]) {
+        case DEADLINE:
+            t = new Deadline(description, fromEpochMinute(firstTimes[row]));
+            break;
+        case EVENT:
+            try {
+                t = new Event(description, fromEpochMinute(firstTimes[row]), fromEpochMinute(secondTimes[row]));
+            } catch (ChatterException e) {
+                throw new IllegalStateException("Stored event ends before it starts", e);
+            }
+            break;
+        default:
+            t = new ToDo(description);
+            break;
+        }
+        if (done.get(row)) {
+            t.markAsDone();
+        }
+        return t;
+    }
+
+    /**
+     * Rewrites the columns to hold only the rows in the list, in list order, once most rows are dead.
+     * Rows are left alone during a transaction, since a rollback may put them back.
+     */
+    private void compactRowsIfSparse() {
+        if (transaction != null || deadRowCount < MIN_COMPACTION_ROWS || deadRowCount * 2 < rowCount) {
+            return;
+        }
+        int capacity = Math.max(INITIAL_CAPACITY, size);
+        byte[] newTypes = new byte[capacity];
+        long[] newFirstTimes = new long[capacity];
+        long[] newSecondTimes = new long[capacity];
+        int[] newTextStarts = new int[capacity];
+        int[] newTextLengths = new int[capacity];
+        BitSet newDone = new BitSet(size);
+        BitSet newWide = new BitSet(size);
+        int newTextSize = 0;
+        for (int i = 0; i < size; i++) {
+            newTextSize += textLengths[order[i]];
+        }
+        byte[] newText = new byte[Math.max(INITIAL_CAPACITY, newTextSize)];
+        newTextSize = 0;
+        for (int i = 0; i < size; i++) {
+            int row = order[i];
+            newTypes[i] = types[row];
+            newFirstTimes[i] = firstTimes[row];
+            newSecondTimes[i] = secondTimes[row];
+            newDone.set(i, done.get(row));
+            newWide.set(i, wide.get(row));
+            System.arraycopy(text, textStarts[row], newText, newTextSize, textLengths[row]);
+            newTextStarts[i] = newTextSize;
+            newTextLengths[i] = textLengths[row];
+            newTextSize += textLengths[row];
+            order[i] = i;
+        }
+        types = newTypes;
+        firstTimes = newFirstTimes;
+        secondTimes = newSecondTimes;
+        textStarts = newTextStarts;
+        textLengths = newTextLengths;
+        done.clear();
+        done.or(newDone);
+        wide.clear();
+        wide.or(newWide);
+        text = newText;
+        textSize = newTextSize;
+        rowCount = size;
+        deadRowCount = 0;
+        rehash(tableCapacity(size));
+    }
+
+    /**
+     * Returns the slot of a row in the list equal to {@code row}, or {@code -1} if there is none.
+     * Rows are equal when their tasks are, which ignores their status.
+     */
+    private int findEqual(int row) {
+        int mask = slots.length - 1;
+        for (int i = hashRow(row) & mask; slots[i] != EMPTY; i = (i + 1) & mask) {
+            int other = slots[i] - 1;
+            if (slots[i] != TOMBSTONE && other != row && equalRows(row, other)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void insertSlot(int row) {
+        if ((usedSlots + 1) * 2 > slots.length) {
+            rehash(tableCapacity(size + 1));
+        }
+        int mask = slots.length - 1;
+        int i = hashRow(row) & mask;
+        while (slots[i] != EMPTY && slots[i] != TOMBSTONE) {
+            i = (i + 1) & mask;
+        }
+        if (slots[i] == EMPTY) {
+            usedSlots++;
+        }
+        slots[i] = row + 1;
+    }
+
+    private void removeSlot(int row) {
+        int mask = slots.length - 1;
+        int i = hashRow(row) & mask;
+        while (slots[i] != row + 1) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = TOMBSTONE;
+    }
+
+    /**
+     * Rebuilds the hash table from the rows in the list, dropping tombstones.
+     */
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        usedSlots = 0;
+        for (int i = 0; i < size; i++) {
+            insertSlot(order[i]);
+        }
+    }
+
+    /**
+     * Returns a power of two large enough to hold {@code count} rows at most half full.
+     */
+    private static int tableCapacity(int count) {
+        return Integer.highestOneBit(Math.max(INITIAL_CAPACITY, count) * 4 - 1);
+    }
+
+    private int hashRow(int row) {
+        int h = types[row];
+        int start = textStarts[row];
+        for (int i = start; i < start + textLengths[row]; i++) {
+            h = 31 * h + text[i];
+        }
+        if (types[row] != TODO) {
+            h = 31 * h + Long.hashCode(firstTimes[row]);
+        }
+        if (types[row] == EVENT) {
+            h = 31 * h + Long.hashCode(secondTimes[row]);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private boolean equalRows(int a, int b) {
+        if (types[a] != types[b] || wide.get(a) != wide.get(b)) {
+            return false;
+        }
+        if (types[a] != TODO && firstTimes[a] != firstTimes[b]) {
+            return false;
+        }
+        if (types[a] == EVENT && secondTimes[a] != secondTimes[b]) {
+            return false;
+        }
+        return Arrays.equals(text, textStarts[a], textStarts[a] + textLengths[a],
+                text, textStarts[b], textStarts[b] + textLengths[b]);
+    }
+
+    private static long toEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Matches rows against the words of a {@code find} query, with the same rules as {@link KeywordIndex}.
+     */
+    private class Matcher {
+        /** Lower-cased query words */
+        private final String[] words;
+
+        /** Query words as ASCII bytes, or {@code null} for a word that no ASCII description can contain */
+        private final byte[][] asciiWords;
+
+        Matcher(String query) {
+            words = query.toLowerCase(Locale.ROOT).trim().split("\\s+");
+            asciiWords = new byte[words.length][];
+            for (int i = 0; i < words.length; i++) {
+                if (words[i].chars().allMatch(c -> c < 0x80)) {
+                    asciiWords[i] = words[i].getBytes(StandardCharsets.US_ASCII);
+                }
+            }
+        }
+
+        boolean matches(int row) {
+            if (wide.get(row)) {
+                String description = readText(row).toLowerCase(Locale.ROOT);
+                for (String word : words) {
+                    if (!description.contains(word)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            for (byte[] word : asciiWords) {
+                if (word == null || !containsIgnoreCase(textStarts[row], textLengths[row], word)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns whether the ASCII text at {@code text[start, start + length)} contains the lower-case
+         * {@code word}, ignoring the case of the text.
+         */
+        private boolean containsIgnoreCase(int start, int length, byte[] word) {
+            int last = start + length - word.length;
+            for (int i = start; i <= last; i++) {
+                int j = 0;
+                while (j < word.length && toLowerCase(text[i + j]) == word[j]) {
+                    j++;
+                }
+                if (j == word.length) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private byte toLowerCase(byte b) {
+            return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+        }
+    }
+
+    /**
+     * One change recorded during a transaction.
+     */
+    private static class Change {
+        private enum Kind { ADDED, REMOVED, STATUS }
+
+        private final Kind kind;
+
+        /** Index in the list of an added or removed row */
+        private final int index;
+
+        private final int row;
+
+        /** Whether the row was done before its status was changed */
+        private final boolean wasDone;
+
+        Change(Kind kind, int index, int row, boolean wasDone) {
+            this.kind = kind;
+            this.index = index;
+            this.row = row;
+            this.wasDone = wasDone;
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package chatter.task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import chatter.exception.ChatterException;
+
+/**
+ * {@link TaskList} that can be read from any number of threads while commands change it.
+ * <p>
+ * The tasks are published as immutable copy-on-write snapshots: reads take the current snapshot without
+ * locking, and a snapshot handed out by {@link #getAllTasks()} never changes afterwards. Tasks in a snapshot
+ * are not changed either, since marking or unmarking replaces the task with a copy. Writes are serialized
+ * by a lock, and each one publishes a new snapshot, so a change costs a copy of the list.
+ * </p>
+ * <p>
+ * A transaction holds the lock from {@link #beginTransaction()} until {@link #commit()} or {@link #rollback()}.
+ * Its changes are applied to a private copy and published together at commit, so other threads never see
+ * half of a batch. The thread running the transaction reads its own changes.
+ * </p>
+ * <p>
+ * Queries scan the snapshot instead of using the indexes of {@link IndexedTaskList}, which could not be shared
+ * without locking.
+ * </p>
+ */
+public class ConcurrentTaskList implements TaskList {
+    /** Serializes writes and is held for the whole of a transaction */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /** The latest published tasks, never modified once published */
+    private volatile List<Task> snapshot;
+
+    /** Changes of the transaction in progress, only accessed by the thread holding the lock, or {@code null} */
+    private ArrayList<Task> pending;
+
+    /** Number of occurrences of each task identity in the latest state, only accessed under the lock */
+    private final HashMap<Task, Integer> occurrences = new HashMap<>();
+
+    /**
+     * Constructs an empty {@code ConcurrentTaskList}.
+     */
+    public ConcurrentTaskList() {
+        this(Collections.emptyList());
+    }
+
+    /**
+     * Constructs a {@code ConcurrentTaskList} holding {@code tasks}.
+     * The list takes over the tasks, which must not be changed by the caller afterwards.
+     *
+     * @param tasks tasks to initialize the list with, in list order
+     */
+    public ConcurrentTaskList(List<Task> tasks) {
+        for (Task t : tasks) {
+            occurrences.merge(t, 1, Integer::sum);
+        }
+        snapshot = Collections.unmodifiableList(new ArrayList<>(tasks));
+    }
+
+    @Override
+    public void add(Task t) throws ChatterException {
+        writeLock.lock();
+        try {
+            if (occurrences.containsKey(t)) {
+                throw new ChatterException("This task already exists in your task list!");
+            }
+            ArrayList<Task> tasks = startWrite();
+            tasks.add(t);
+            occurrences.put(t, 1);
+            finishWrite(tasks);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void insert(int index, Task t) throws ChatterException {
+        writeLock.lock();
+        try {
+            checkIndex(index, view().size() + 1);
+            if (occurrences.containsKey(t)) {
+                throw new ChatterException("This task already exists in your task list!");
+            }
+            ArrayList<Task> tasks = startWrite();
+            tasks.add(index, t);
+            occurrences.put(t, 1);
+            finishWrite(tasks);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(int index) throws ChatterException {
+        writeLock.lock();
+        try {
+            checkIndex(index, view().size());
+            ArrayList<Task> tasks = startWrite();
+            forget(tasks.remove(index));
+            finishWrite(tasks);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Task get(int index) throws ChatterException {
+        List<Task> tasks = view();
+        checkIndex(index, tasks.size());
+        return tasks.get(index);
+    }
+
+    @Override
+    public Task mark(int index) throws ChatterException {
+        return setDone(index, true);
+    }
+
+    @Override
+    public Task unmark(int index) throws ChatterException {
+        return setDone(index, false);
+    }
+
+    @Override
+    public List<Task> removeAll(BitSet indexes) throws ChatterException {
+        writeLock.lock();
+        try {
+            checkIndexes(indexes, view().size());
+            ArrayList<Task> removed = new ArrayList<>(indexes.cardinality());
+            ArrayList<Task> tasks = startWrite();
+            int first = indexes.nextSetBit(0);
+            int kept = Math.max(first, 0);
+            for (int i = kept; first >= 0 && i < tasks.size(); i++) {
+                Task t = tasks.get(i);
+                if (indexes.get(i)) {
+                    removed.add(t);
+                    forget(t);
+                } else {
+                    tasks.set(kept++, t);
+                }
+            }
+            if (first >= 0) {
+                tasks.subList(kept, tasks.size()).clear();
+            }
+            finishWrite(tasks);
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> markAll(BitSet indexes) throws ChatterException {
+        return setDoneAll(indexes, true);
+    }
+
+    @Override
+    public List<Task> unmarkAll(BitSet indexes) throws ChatterException {
+        return setDoneAll(indexes, false);
+    }
+
+    @Override
+    public BitSet selectDone() {
+        List<Task> tasks = view();
+        BitSet selected = new BitSet(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).isDone()) {
+                selected.set(i);
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public BitSet selectMatching(String query) {
+        String[] words = KeywordIndex.queryWords(query);
+        List<Task> tasks = view();
+        BitSet selected = new BitSet(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            if (KeywordIndex.matches(tasks.get(i), words)) {
+                selected.set(i);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Starts a transaction, waiting until no other thread is writing.
+     * Other threads keep reading the last published snapshot until the transaction ends.
+     *
+     * @throws IllegalStateException if this thread already has a transaction in progress
+     */
+    @Override
+    public void beginTransaction() {
+        writeLock.lock();
+        if (pending != null) {
+            writeLock.unlock();
+            throw new IllegalStateException("A transaction is already in progress");
+        }
+        pending = new ArrayList<>(snapshot);
+    }
+
+    /**
+     * Publishes the changes made since {@link #beginTransaction()} and releases the lock.
+     * Does nothing if this thread has no transaction in progress.
+     */
+    @Override
+    public void commit() {
+        if (!writeLock.isHeldByCurrentThread() || pending == null) {
+            return;
+        }
+        snapshot = Collections.unmodifiableList(pending);
+        pending = null;
+        writeLock.unlock();
+    }
+
+    /**
+     * Discards the changes made since {@link #beginTransaction()} and releases the lock.
+     * Does nothing if this thread has no transaction in progress, so that cleanup code can always call it.
+     */
+    @Override
+    public void rollback() {
+        if (!writeLock.isHeldByCurrentThread() || pending == null) {
+            return;
+        }
+        pending = null;
+        occurrences.clear();
+        for (Task t : snapshot) {
+            occurrences.merge(t, 1, Integer::sum);
+        }
+        writeLock.unlock();
+    }
+
+    @Override
+    public int getSize() {
+        return view().size();
+    }
+
+    /**
+     * Returns the current snapshot of all tasks, which stays the same however the list changes afterwards.
+     *
+     * @return unmodifiable {@code List} of tasks.
+     */
+    @Override
+    public List<Task> getAllTasks() {
+        return view();
+    }
+
+    @Override
+    public List<Task> findMatching(String query) {
+        String[] words = KeywordIndex.queryWords(query);
+        List<Task> matches = new ArrayList<>();
+        for (Task t : view()) {
+            if (KeywordIndex.matches(t, words)) {
+                matches.add(t);
+            }
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    @Override
+    public List<Task> findBetween(LocalDate from, LocalDate to) {
+        List<Task> matches = new ArrayList<>();
+        for (Task t : view()) {
+            boolean isMatch;
+            if (t instanceof Deadline) {
+                LocalDate day = ((Deadline) t).getDateTime().toLocalDate();
+                isMatch = !day.isBefore(from) && !day.isAfter(to);
+            } else if (t instanceof Event) {
+                isMatch = !((Event) t).getFrom().toLocalDate().isAfter(to)
+                        && !((Event) t).getTo().toLocalDate().isBefore(from);
+            } else {
+                isMatch = false;
+            }
+            if (isMatch) {
+                matches.add(t);
+            }
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Returns the tasks this thread should see: its own transaction's changes, or else the latest snapshot.
+     */
+    private List<Task> view() {
+        if (writeLock.isHeldByCurrentThread() && pending != null) {
+            return Collections.unmodifiableList(pending);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the list a write under the lock should change: the transaction's copy, or a fresh copy of
+     * the snapshot that {@link #finishWrite(ArrayList)} then publishes.
+     */
+    private ArrayList<Task> startWrite() {
+        return pending != null ? pending : new ArrayList<>(snapshot);
+    }
+
+    private void finishWrite(ArrayList<Task> tasks) {
+        if (pending == null) {
+            snapshot = Collections.unmodifiableList(tasks);
+        }
+    }
+
+    private void forget(Task t) {
+        occurrences.computeIfPresent(t, (task, count) -> count == 1 ? null : count - 1);
+    }
+
+    private Task setDone(int index, boolean isDone) throws ChatterException {
+        writeLock.lock();
+        try {
+            checkIndex(index, view().size());
+            ArrayList<Task> tasks = startWrite();
+            Task t = withStatus(tasks.get(index), isDone);
+            tasks.set(index, t);
+            finishWrite(tasks);
+            return t;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private List<Task> setDoneAll(BitSet indexes, boolean isDone) throws ChatterException {
+        writeLock.lock();
+        try {
+            checkIndexes(indexes, view().size());
+            ArrayList<Task> changed = new ArrayList<>(indexes.cardinality());
+            ArrayList<Task> tasks = startWrite();
+            for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+                Task t = withStatus(tasks.get(i), isDone);
+                tasks.set(i, t);
+                changed.add(t);
+            }
+            finishWrite(tasks);
+            return changed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static void checkIndex(int index, int size) throws ChatterException {
+        if (index < 0 || index >= size) {
+            throw new ChatterException("You don't have that many task!");
+        }
+    }
+
+    private static void checkIndexes(BitSet indexes, int size) throws ChatterException {
+        if (indexes.length() > size) {
+            throw new ChatterException("You don't have that many task!");
+        }
+    }
+
+    /**
+     * Returns {@code t} if it already has the given status, or else a copy of it with that status,
+     * so that tasks in published snapshots are never changed.
+     */
+    private static Task withStatus(Task t, boolean isDone) {
+        if (t.isDone() == isDone) {
+            return t;
+        }
+        Task copy;
+        if (t instanceof Deadline) {
+            copy = new Deadline(t.getDescription(), ((Deadline) t).getDateTime());
+        } else if (t instanceof Event) {
+            try {
+                copy = new Event(t.getDescription(), ((Event) t).getFrom(), ((Event) t).getTo());
+            } catch (ChatterException e) {
+                throw new IllegalStateException("Stored event ends before it starts", e);
+            }
+        } else {
+            copy = new ToDo(t.getDescription());
+        }
+        if (isDone) {
+            copy.markAsDone();
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,76 @@
+package chatter.task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index of dated tasks by calendar day.
+ * Deadlines are kept in a sorted map keyed by due date and events in an {@link IntervalTree}
+ * over the days they span, so date and date-range lookups do not have to scan every task.
+ */
+class DateIndex {
+    /** Deadlines keyed by the epoch day they are due, then by task sequence number */
+    private final TreeMap<Long, TreeMap<Long, Task>> deadlines = new TreeMap<>();
+
+    /** Events as closed ranges of epoch days */
+    private final IntervalTree events = new IntervalTree();
+
+    /**
+     * Indexes {@code t} if it is a {@link Deadline} or an {@link Event}.
+     *
+     * @param t the task to index
+     * @param sequence the sequence number of the task in its {@code IndexedTaskList}
+     */
+    void add(Task t, long sequence) {
+        if (t instanceof Deadline) {
+            long day = ((Deadline) t).getDateTime().toLocalDate().toEpochDay();
+            deadlines.computeIfAbsent(day, key -> new TreeMap<>()).put(sequence, t);
+        } else if (t instanceof Event) {
+            Event event = (Event) t;
+            events.insert(event.getFrom().toLocalDate().toEpochDay(),
+                    event.getTo().toLocalDate().toEpochDay(), sequence, t);
+        }
+    }
+
+    /**
+     * Removes {@code t} from the index.
+     *
+     * @param t the task to remove
+     * @param sequence the sequence number the task was indexed with
+     */
+    void remove(Task t, long sequence) {
+        if (t instanceof Deadline) {
+            long day = ((Deadline) t).getDateTime().toLocalDate().toEpochDay();
+            TreeMap<Long, Task> dueThatDay = deadlines.get(day);
+            if (dueThatDay != null) {
+                dueThatDay.remove(sequence);
+                if (dueThatDay.isEmpty()) {
+                    deadlines.remove(day);
+                }
+            }
+        } else if (t instanceof Event) {
+            events.remove(((Event) t).getFrom().toLocalDate().toEpochDay(), sequence);
+        }
+    }
+
+    /**
+     * Returns the deadlines due and the events taking place on any day from {@code from} to {@code to} inclusive.
+     *
+     * @param from the first day of the range
+     * @param to the last day of the range
+     * @return the matching tasks in list order
+     */
+    List<Task> between(LocalDate from, LocalDate to) {
+        long low = from.toEpochDay();
+        long high = to.toEpochDay();
+        TreeMap<Long, Task> matches = new TreeMap<>();
+        for (Map<Long, Task> dueThatDay : deadlines.subMap(low, true, high, true).values()) {
+            matches.putAll(dueThatDay);
+        }
+        events.collectOverlapping(low, high, matches);
+        return new ArrayList<>(matches.values());
+    }
+}
@@ -0,0 +1,107 @@
+package chatter.task;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads and writes date-times in the {@code yyyy-MM-dd HHmm} format of commands and the save file.
+ * <p>
+ * Plain dates in years 1 to 9999 are handled by hand, which avoids the field resolution of
+ * {@link DateTimeFormatter}. Anything else, such as longer years, or the days and times that
+ * {@code DateTimeFormatter} adjusts, like {@code 2024-02-30} or {@code 2400}, is left to the
+ * formatter, so the results are always the same as with the formatter alone.
+ * </p>
+ */
+final class DateTimeCodec {
+    /** Formatter for the text that is not handled by hand */
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+
+    /** Length of a date-time with a four-digit year */
+    private static final int LENGTH = 15;
+
+    private DateTimeCodec() {
+    }
+
+    /**
+     * Parses {@code text} as a {@code yyyy-MM-dd HHmm} date-time.
+     *
+     * @param text the text to parse
+     * @return the date-time
+     * @throws DateTimeParseException if {@code text} is not a valid date-time in that format
+     */
+    static LocalDateTime parse(String text) {
+        if (text.length() == LENGTH && text.charAt(4) == '-' && text.charAt(7) == '-' && text.charAt(10) == ' ') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 2);
+            int day = digits(text, 8, 2);
+            int hour = digits(text, 11, 2);
+            int minute = digits(text, 13, 2);
+            if (year > 0 && month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month)
+                    && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59) {
+                return LocalDateTime.of(year, month, day, hour, minute);
+            }
+        }
+        return LocalDateTime.parse(text, FORMAT);
+    }
+
+    /**
+     * Formats {@code dateTime} as {@code yyyy-MM-dd HHmm}.
+     *
+     * @param dateTime the date-time to format
+     * @return the formatted date-time
+     */
+    static String format(LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        if (year < 1 || year > 9999) {
+            return dateTime.format(FORMAT);
+        }
+        char[] chars = new char[LENGTH];
+        putDigits(chars, 0, year, 4);
+        chars[4] = '-';
+        putDigits(chars, 5, dateTime.getMonthValue(), 2);
+        chars[7] = '-';
+        putDigits(chars, 8, dateTime.getDayOfMonth(), 2);
+        chars[10] = ' ';
+        putDigits(chars, 11, dateTime.getHour(), 2);
+        putDigits(chars, 13, dateTime.getMinute(), 2);
+        return new String(chars);
+    }
+
+    /**
+     * Returns the value of the {@code count} ASCII digits of {@code text} at {@code start}, or -1 if any is not one.
+     */
+    private static int digits(String text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void putDigits(char[] chars, int start, int value, int count) {
+        for (int i = start + count - 1; i >= start; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            boolean isLeap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+            return isLeap ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+}
@@ -12,9 +12,6 @@ import chatter.exception.ChatterException;
  * Inherits from {@link Task}.
  */
 public class Deadline extends Task {
-    /** Formatter for parsing input date/time strings */
-    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
-
     /** Formatter for displaying date/time to the user */
     private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy h:mma");
 
@@ -29,9 +26,23 @@ public class Deadline extends Task {
      * @throws ChatterException if {@code byStr} is not in the correct format
      */
     public Deadline(String description, String byStr) throws ChatterException {
+        this(description, parseBy(byStr));
+    }
+
+    /**
+     * Constructs a {@code Deadline} task with the given description and due date/time.
+     *
+     * @param description the description of the task
+     * @param by the deadline of the task
+     */
+    public Deadline(String description, LocalDateTime by) {
         super(description);
+        this.by = by;
+    }
+
+    private static LocalDateTime parseBy(String byStr) throws ChatterException {
         try {
-            this.by = LocalDateTime.parse(byStr, INPUT_FORMAT);
+            return DateTimeCodec.parse(byStr);
         } catch (DateTimeParseException e) {
             throw new ChatterException("/by must be followed by deadline in yyyy-MM-dd HHmm format!");
         }
@@ -53,17 +64,25 @@ public class Deadline extends Task {
         return by.equals(newDeadlineTask.by);
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + by.hashCode();
+    }
+
     @Override
     public String toSaveFormat() {
         if (isDone) {
-            return "D | 1 | " + description + " | " + by.format(INPUT_FORMAT);
+            return "D | 1 | " + description + " | " + DateTimeCodec.format(by);
         } else {
-            return "D | 0 | " + description + " | " + by.format(INPUT_FORMAT);
+            return "D | 0 | " + description + " | " + DateTimeCodec.format(by);
         }
     }
 
     @Override
     public String toString() {
-        return "[D]" + super.toString() + " (by: " + by.format(OUTPUT_FORMAT) + ")";
+        if (rendered == null) {
+            rendered = "[D]" + super.toString() + " (by: " + by.format(OUTPUT_FORMAT) + ")";
+        }
+        return rendered;
     }
 }
@@ -12,9 +12,6 @@ import chatter.exception.ChatterException;
  * Inherits from {@link Task}.
  */
 public class Event extends Task {
-    /** Formatter for parsing input date/time strings */
-    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
-
     /** Formatter for displaying date/time to the user */
     private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy h:mma");
 
@@ -33,19 +30,32 @@ public class Event extends Task {
      * @throws ChatterException If the date format is invalid or end time is before/equal to start time.
      */
     public Event(String description, String fromStr, String toStr) throws ChatterException {
+        this(description, parseTime(fromStr, "/from must be followed by event start time in yyyy-MM-dd HHmm format!"),
+                parseTime(toStr, "/to must be followed by event end time in yyyy-MM-dd HHmm format!"));
+    }
+
+    /**
+     * Constructs an Event task with a description, start time, and end time.
+     *
+     * @param description Description of the event.
+     * @param from Start time of the event.
+     * @param to End time of the event.
+     * @throws ChatterException If the end time is before/equal to start time.
+     */
+    public Event(String description, LocalDateTime from, LocalDateTime to) throws ChatterException {
         super(description);
-        try {
-            this.from = LocalDateTime.parse(fromStr, INPUT_FORMAT);
-        } catch (DateTimeParseException e) {
-            throw new ChatterException("/from must be followed by event start time in yyyy-MM-dd HHmm format!");
+        this.from = from;
+        this.to = to;
+        if (to.isBefore(from) || to.equals(from)) {
+            throw new ChatterException("Event end time must be after event start time!");
         }
+    }
+
+    private static LocalDateTime parseTime(String timeStr, String errorMessage) throws ChatterException {
         try {
-            this.to = LocalDateTime.parse(toStr, INPUT_FORMAT);
+            return DateTimeCodec.parse(timeStr);
         } catch (DateTimeParseException e) {
-            throw new ChatterException("/to must be followed by event end time in yyyy-MM-dd HHmm format!");
-        }
-        if (to.isBefore(from) || to.equals(from)) {
-            throw new ChatterException("Event end time must be after event start time!");
+            throw new ChatterException(errorMessage);
         }
     }
 
@@ -69,18 +79,27 @@ public class Event extends Task {
         return from.equals(newEventTask.from) && to.equals(newEventTask.to);
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * (31 * super.hashCode() + from.hashCode()) + to.hashCode();
+    }
+
     @Override
     public String toSaveFormat() {
+        String times = DateTimeCodec.format(from) + " | " + DateTimeCodec.format(to);
         if (isDone) {
-            return "E | 1 | " + description + " | " + from.format(INPUT_FORMAT) + " | " + to.format(INPUT_FORMAT);
+            return "E | 1 | " + description + " | " + times;
         } else {
-            return "E | 0 | " + description + " | " + from.format(INPUT_FORMAT) + " | " + to.format(INPUT_FORMAT);
+            return "E | 0 | " + description + " | " + times;
         }
     }
 
     @Override
     public String toString() {
-        return "[E]" + super.toString() + " (from: " + from.format(OUTPUT_FORMAT)
-                + " to: " + to.format(OUTPUT_FORMAT) + ")";
+        if (rendered == null) {
+            rendered = "[E]" + super.toString() + " (from: " + from.format(OUTPUT_FORMAT)
+                    + " to: " + to.format(OUTPUT_FORMAT) + ")";
+        }
+        return rendered;
     }
 }
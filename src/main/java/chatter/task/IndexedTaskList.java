@@ -0,0 +1,559 @@
+package chatter.task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import chatter.exception.ChatterException;
+
+/**
+ * {@link TaskList} that keeps its tasks in one list, with a keyword index and a date index over them
+ * for searches, and sequence numbers that keep both indexes in list order.
+ */
+public class IndexedTaskList implements TaskList {
+    /**
+     * Distance between the sequence numbers of tasks added one after another,
+     * which leaves room for the sequence numbers of tasks inserted between them
+     */
+    private static final long SEQUENCE_GAP = 1L << 32;
+
+    /** Largest distance from the task before it at which an inserted task is numbered */
+    private static final long INSERT_STEP = 1L << 16;
+
+    /** Internal list storing the tasks, filled from {@link #source} when that is set */
+    private final ArrayList<Task> tasks;
+
+    /** Source of tasks not yet materialized into {@link #tasks}, or {@code null} */
+    private TaskSource source;
+
+    /**
+     * Number of occurrences of each task identity in {@link #tasks}, used for constant-time
+     * duplicate detection. Files written by older versions may still contain duplicates,
+     * hence a count rather than a set.
+     */
+    private final HashMap<Task, Integer> occurrences;
+
+    /** Insertion sequence number of each task, increasing in list order */
+    private final IdentityHashMap<Task, Long> sequences;
+
+    /**
+     * Keyword index over task descriptions used by {@link #findMatching(String)}, or {@code null} until
+     * the first search, so that loading and sessions that never search do not pay for it
+     */
+    private KeywordIndex keywords;
+
+    /** Date index over deadlines and events used by {@link #findBetween(LocalDate, LocalDate)} */
+    private final DateIndex dates;
+
+    /** Sequence number given to the next task added */
+    private long nextSequence;
+
+    /** Changes made since {@link #beginTransaction()}, oldest first, or {@code null} outside a transaction */
+    private ArrayList<Change> transaction;
+
+    /**
+     * Constructs an empty {@code IndexedTaskList}.
+     */
+    public IndexedTaskList() {
+        this(new ArrayList<>());
+    }
+
+    /**
+     * Constructs an {@code IndexedTaskList} with an existing list of tasks.
+     *
+     * @param tasks {@link ArrayList} of tasks to initialize the {@code IndexedTaskList} with.
+     */
+    public IndexedTaskList(ArrayList<Task> tasks) {
+        this.tasks = tasks;
+        this.occurrences = new HashMap<>(Math.max(16, tasks.size() * 4 / 3 + 1));
+        this.sequences = new IdentityHashMap<>(tasks.size());
+        this.dates = new DateIndex();
+        for (Task t : tasks) {
+            occurrences.merge(t, 1, Integer::sum);
+            index(t);
+        }
+    }
+
+    /**
+     * Constructs an {@code IndexedTaskList} backed by a lazily materialized {@link TaskSource}.
+     * Positional reads and marking are served by the source; any other operation
+     * materializes the whole source and builds the indexes first.
+     *
+     * @param source the source of tasks
+     */
+    public IndexedTaskList(TaskSource source) {
+        this();
+        this.source = source;
+    }
+
+    /**
+     * Adds a task to the {@code IndexedTaskList}.
+     *
+     * @param t {@code Task} to add.
+     * @throws ChatterException If the given task already exist in the task list.
+     */
+    @Override
+    public void add(Task t) throws ChatterException {
+        materialize();
+        if (occurrences.containsKey(t)) {
+            throw new ChatterException("This task already exists in your task list!");
+        }
+        tasks.add(t);
+        occurrences.put(t, 1);
+        index(t);
+        if (transaction != null) {
+            transaction.add(new Change(Change.Kind.ADDED, tasks.size() - 1, t, false));
+        }
+    }
+
+    /**
+     * Inserts a task at the specified index, shifting the task at that index and those after it.
+     *
+     * @param index Index the task will have, from 0 to the number of tasks.
+     * @param t {@code Task} to insert.
+     * @throws ChatterException If the index is out of bounds or the given task already exist in the task list.
+     */
+    @Override
+    public void insert(int index, Task t) throws ChatterException {
+        materialize();
+        if (index < 0 || index > tasks.size()) {
+            throw new ChatterException("You don't have that many task!");
+        }
+        if (occurrences.containsKey(t)) {
+            throw new ChatterException("This task already exists in your task list!");
+        }
+        long sequence = sequenceAt(index);
+        tasks.add(index, t);
+        occurrences.put(t, 1);
+        sequences.put(t, sequence);
+        addToIndexes(t, sequence);
+        if (transaction != null) {
+            transaction.add(new Change(Change.Kind.ADDED, index, t, false));
+        }
+    }
+
+    /**
+     * Removes the task at the specified index.
+     *
+     * @param index Index of the task to remove.
+     * @throws ChatterException If the index is out of bounds.
+     */
+    @Override
+    public void remove(int index) throws ChatterException {
+        materialize();
+        if (index < 0 || index >= tasks.size()) {
+            throw new ChatterException("You don't have that many task!");
+        }
+        Task removed = tasks.remove(index);
+        occurrences.computeIfPresent(removed, (t, count) -> count == 1 ? null : count - 1);
+        long sequence = sequences.remove(removed);
+        removeFromIndexes(removed, sequence);
+        if (transaction != null) {
+            transaction.add(new Change(Change.Kind.REMOVED, index, removed, false));
+        }
+    }
+
+    /**
+     * Returns the task at the specified index.
+     *
+     * @param index Index of the task to retrieve.
+     * @return {@code Task} at the given index.
+     * @throws ChatterException If the index is out of bounds.
+     */
+    @Override
+    public Task get(int index) throws ChatterException {
+        if (source != null) {
+            return source.get(index);
+        }
+        if (index < 0 || index >= tasks.size()) {
+            throw new ChatterException("You don't have that many task!");
+        }
+        return tasks.get(index);
+    }
+
+    /**
+     * Marks the task at the specified index as done.
+     * The completion status is not part of a task's identity, so the duplicate index is unaffected.
+     *
+     * @param index Index of the task to mark.
+     * @return the marked {@code Task}.
+     * @throws ChatterException If the index is out of bounds.
+     */
+    @Override
+    public Task mark(int index) throws ChatterException {
+        Task t = get(index);
+        recordStatus(index, t);
+        t.markAsDone();
+        return t;
+    }
+
+    /**
+     * Marks the task at the specified index as not done.
+     *
+     * @param index Index of the task to unmark.
+     * @return the unmarked {@code Task}.
+     * @throws ChatterException If the index is out of bounds.
+     */
+    @Override
+    public Task unmark(int index) throws ChatterException {
+        Task t = get(index);
+        recordStatus(index, t);
+        t.unmark();
+        return t;
+    }
+
+    /**
+     * Removes the tasks at every index in {@code indexes} in a single pass, moving each remaining task
+     * straight to its final position instead of shifting the tail of the list once per removal.
+     *
+     * @param indexes the indexes of the tasks to remove
+     * @return the removed tasks, in list order
+     * @throws ChatterException If any index is out of bounds; no task is removed in that case.
+     */
+    @Override
+    public List<Task> removeAll(BitSet indexes) throws ChatterException {
+        materialize();
+        if (indexes.length() > tasks.size()) {
+            throw new ChatterException("You don't have that many task!");
+        }
+        ArrayList<Task> removed = new ArrayList<>(indexes.cardinality());
+        int first = indexes.nextSetBit(0);
+        if (first < 0) {
+            return removed;
+        }
+        int kept = first;
+        for (int i = first; i < tasks.size(); i++) {
+            Task t = tasks.get(i);
+            if (!indexes.get(i)) {
+                tasks.set(kept++, t);
+                continue;
+            }
+            removed.add(t);
+            occurrences.computeIfPresent(t, (task, count) -> count == 1 ? null : count - 1);
+            long sequence = sequences.remove(t);
+            removeFromIndexes(t, sequence);
+            if (transaction != null) {
+                // Recorded at the index it would have had if the tasks were removed one by one.
+                transaction.add(new Change(Change.Kind.REMOVED, kept, t, false));
+            }
+        }
+        tasks.subList(kept, tasks.size()).clear();
+        return removed;
+    }
+
+    /**
+     * Marks the tasks at every index in {@code indexes} as done.
+     *
+     * @param indexes the indexes of the tasks to mark
+     * @return the marked tasks, in list order
+     * @throws ChatterException If any index is out of bounds; no task is marked in that case.
+     */
+    @Override
+    public List<Task> markAll(BitSet indexes) throws ChatterException {
+        List<Task> selected = getAll(indexes);
+        int index = indexes.nextSetBit(0);
+        for (Task t : selected) {
+            recordStatus(index, t);
+            t.markAsDone();
+            index = indexes.nextSetBit(index + 1);
+        }
+        return selected;
+    }
+
+    /**
+     * Marks the tasks at every index in {@code indexes} as not done.
+     *
+     * @param indexes the indexes of the tasks to unmark
+     * @return the unmarked tasks, in list order
+     * @throws ChatterException If any index is out of bounds; no task is unmarked in that case.
+     */
+    @Override
+    public List<Task> unmarkAll(BitSet indexes) throws ChatterException {
+        List<Task> selected = getAll(indexes);
+        int index = indexes.nextSetBit(0);
+        for (Task t : selected) {
+            recordStatus(index, t);
+            t.unmark();
+            index = indexes.nextSetBit(index + 1);
+        }
+        return selected;
+    }
+
+    /**
+     * Returns the indexes of the tasks that are done.
+     *
+     * @return the indexes of the done tasks
+     */
+    @Override
+    public BitSet selectDone() {
+        materialize();
+        BitSet selected = new BitSet(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).isDone()) {
+                selected.set(i);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Returns the indexes of the tasks whose descriptions contain every word of the query, ignoring case.
+     *
+     * @param query the whitespace-separated words to search for in task descriptions
+     * @return the indexes of the matching tasks
+     */
+    @Override
+    public BitSet selectMatching(String query) {
+        materialize();
+        List<Task> matches = keywords().search(query, tasks);
+        Set<Task> matching = Collections.newSetFromMap(new IdentityHashMap<>(matches.size()));
+        matching.addAll(matches);
+        BitSet selected = new BitSet(tasks.size());
+        for (int i = 0; i < tasks.size() && !matching.isEmpty(); i++) {
+            if (matching.remove(tasks.get(i))) {
+                selected.set(i);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Starts recording changes, so that they can all be undone by {@link #rollback()}
+     * until {@link #commit()} is called.
+     *
+     * @throws IllegalStateException if a transaction is already in progress
+     */
+    @Override
+    public void beginTransaction() {
+        if (transaction != null) {
+            throw new IllegalStateException("A transaction is already in progress");
+        }
+        materialize();
+        transaction = new ArrayList<>();
+    }
+
+    /**
+     * Keeps the changes made since {@link #beginTransaction()} and stops recording them.
+     */
+    @Override
+    public void commit() {
+        transaction = null;
+    }
+
+    /**
+     * Undoes every change made since {@link #beginTransaction()}, newest first, and stops recording.
+     * Removed tasks are put back with sequence numbers between those of their neighbours, so the indexes keep
+     * list order even if the tasks were renumbered in the meantime. Does nothing outside a transaction.
+     */
+    @Override
+    public void rollback() {
+        ArrayList<Change> changes = transaction;
+        transaction = null;
+        if (changes == null) {
+            return;
+        }
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            Change change = changes.get(i);
+            switch (change.kind) {
+            case ADDED:
+                Task added = tasks.remove(change.index);
+                occurrences.computeIfPresent(added, (t, count) -> count == 1 ? null : count - 1);
+                long sequence = sequences.remove(added);
+                removeFromIndexes(added, sequence);
+                break;
+            case REMOVED:
+                long restored = sequenceAt(change.index);
+                tasks.add(change.index, change.task);
+                occurrences.merge(change.task, 1, Integer::sum);
+                sequences.put(change.task, restored);
+                addToIndexes(change.task, restored);
+                break;
+            default:
+                if (change.wasDone) {
+                    change.task.markAsDone();
+                } else {
+                    change.task.unmark();
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of tasks in the {@code IndexedTaskList}.
+     *
+     * @return Number of tasks.
+     */
+    @Override
+    public int getSize() {
+        return source != null ? source.size() : tasks.size();
+    }
+
+    /**
+     * Returns a read-only view of all tasks.
+     * Tasks must be added and removed through this {@code IndexedTaskList} to keep its index in sync.
+     *
+     * @return unmodifiable {@code List} of tasks.
+     */
+    @Override
+    public List<Task> getAllTasks() {
+        materialize();
+        return Collections.unmodifiableList(tasks);
+    }
+
+    /**
+     * Returns the tasks whose descriptions contain every word of the query, ignoring case.
+     * Matches are looked up in the keyword index rather than by scanning every task.
+     *
+     * @param query the whitespace-separated words to search for in task descriptions
+     * @return a read-only list of the matching tasks, in list order
+     */
+    @Override
+    public List<Task> findMatching(String query) {
+        materialize();
+        return Collections.unmodifiableList(keywords().search(query, getAllTasks()));
+    }
+
+    /**
+     * Returns the deadlines due and the events taking place on any day in the given range.
+     *
+     * @param from the first day of the range
+     * @param to the last day of the range, inclusive
+     * @return a read-only list of the matching tasks, in list order
+     */
+    @Override
+    public List<Task> findBetween(LocalDate from, LocalDate to) {
+        materialize();
+        return Collections.unmodifiableList(dates.between(from, to));
+    }
+
+    /**
+     * Moves every task from the lazy source, if any, into the list and indexes them.
+     */
+    private void materialize() {
+        if (source == null) {
+            return;
+        }
+        ArrayList<Task> loaded = source.materialize();
+        source = null;
+        tasks.ensureCapacity(loaded.size());
+        for (Task t : loaded) {
+            tasks.add(t);
+            occurrences.merge(t, 1, Integer::sum);
+            index(t);
+        }
+    }
+
+    private List<Task> getAll(BitSet indexes) throws ChatterException {
+        if (indexes.length() > getSize()) {
+            throw new ChatterException("You don't have that many task!");
+        }
+        ArrayList<Task> selected = new ArrayList<>(indexes.cardinality());
+        for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+            selected.add(get(i));
+        }
+        return selected;
+    }
+
+    private void recordStatus(int index, Task t) {
+        if (transaction != null) {
+            transaction.add(new Change(Change.Kind.STATUS, index, t, t.isDone()));
+        }
+    }
+
+    private void index(Task t) {
+        long sequence = nextSequence;
+        nextSequence += SEQUENCE_GAP;
+        sequences.put(t, sequence);
+        addToIndexes(t, sequence);
+    }
+
+    private void addToIndexes(Task t, long sequence) {
+        if (keywords != null) {
+            keywords.add(t, sequence);
+        }
+        dates.add(t, sequence);
+    }
+
+    private void removeFromIndexes(Task t, long sequence) {
+        if (keywords != null) {
+            keywords.remove(t, sequence);
+        }
+        dates.remove(t, sequence);
+    }
+
+    /**
+     * Returns the keyword index, building it from the tasks in list order on first use.
+     */
+    private KeywordIndex keywords() {
+        if (keywords == null) {
+            keywords = new KeywordIndex();
+            for (Task t : tasks) {
+                keywords.add(t, sequences.get(t));
+            }
+        }
+        return keywords;
+    }
+
+    /**
+     * Returns a sequence number for a task inserted at {@code index}, between those of its neighbours.
+     * The number stays close to the task before it, so that a run of tasks inserted in list order,
+     * as when removed tasks are put back, does not use up the room after it. Every task is renumbered
+     * first if there is no room left.
+     */
+    private long sequenceAt(int index) {
+        if (index == tasks.size()) {
+            long sequence = nextSequence;
+            nextSequence += SEQUENCE_GAP;
+            return sequence;
+        }
+        long next = sequences.get(tasks.get(index));
+        long previous = index == 0 ? next - SEQUENCE_GAP : sequences.get(tasks.get(index - 1));
+        if (next - previous < 2) {
+            renumber();
+            return sequenceAt(index);
+        }
+        return previous + Math.min((next - previous) / 2, INSERT_STEP);
+    }
+
+    /**
+     * Gives every task a new sequence number, {@link #SEQUENCE_GAP} apart in list order.
+     * Every task is taken out of the indexes before any is put back, as the new numbers overlap the old ones.
+     */
+    private void renumber() {
+        for (Task t : tasks) {
+            long sequence = sequences.get(t);
+            removeFromIndexes(t, sequence);
+        }
+        nextSequence = 0;
+        for (Task t : tasks) {
+            index(t);
+        }
+    }
+
+    /**
+     * One change recorded during a transaction.
+     */
+    private static class Change {
+        private enum Kind { ADDED, REMOVED, STATUS }
+
+        private final Kind kind;
+        private final int index;
+        private final Task task;
+
+        /** Whether the task was done before its status was changed */
+        private final boolean wasDone;
+
+        Change(Kind kind, int index, Task task, boolean wasDone) {
+            this.kind = kind;
+            this.index = index;
+            this.task = task;
+            this.wasDone = wasDone;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package chatter.task;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Interval tree over closed {@code long} ranges, implemented as a treap ordered by
+ * (start, sequence number) where every node also tracks the largest end point in its subtree.
+ * Stabbing and overlap queries run in expected O(log n + k) for k results.
+ */
+class IntervalTree {
+    /** Source of heap priorities that keep the treap balanced in expectation */
+    private final Random random = new Random(0);
+
+    /** Root of the treap, or {@code null} if the tree is empty */
+    private Node root;
+
+    /**
+     * Inserts the interval {@code [start, end]} for {@code task}.
+     *
+     * @param start the start of the interval
+     * @param end the end of the interval, not less than {@code start}
+     * @param sequence the sequence number of the task, unique within the tree
+     * @param task the task the interval belongs to
+     */
+    void insert(long start, long end, long sequence, Task task) {
+        root = insert(root, new Node(start, end, sequence, task, random.nextInt()));
+    }
+
+    /**
+     * Removes the interval starting at {@code start} that was inserted with {@code sequence}.
+     *
+     * @param start the start of the interval
+     * @param sequence the sequence number it was inserted with
+     */
+    void remove(long start, long sequence) {
+        root = remove(root, start, sequence);
+    }
+
+    /**
+     * Adds every task whose interval overlaps {@code [low, high]} to {@code results}, keyed by sequence number.
+     *
+     * @param low the start of the query range
+     * @param high the end of the query range
+     * @param results map receiving the overlapping tasks
+     */
+    void collectOverlapping(long low, long high, Map<Long, Task> results) {
+        collect(root, low, high, results);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.compareTo(node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node remove(Node node, long start, long sequence) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = node.compareTo(start, sequence);
+        if (cmp > 0) {
+            node.left = remove(node.left, start, sequence);
+        } else if (cmp < 0) {
+            node.right = remove(node.right, start, sequence);
+        } else if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        } else if (node.left.priority > node.right.priority) {
+            node = rotateRight(node);
+            node.right = remove(node.right, start, sequence);
+        } else {
+            node = rotateLeft(node);
+            node.left = remove(node.left, start, sequence);
+        }
+        node.update();
+        return node;
+    }
+
+    private static void collect(Node node, long low, long high, Map<Long, Task> results) {
+        if (node == null || node.maxEnd < low) {
+            return;
+        }
+        collect(node.left, low, high, results);
+        if (node.start > high) {
+            return;
+        }
+        if (node.end >= low) {
+            results.put(node.sequence, node.task);
+        }
+        collect(node.right, low, high, results);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    /**
+     * A single interval in the treap.
+     */
+    private static class Node {
+        private final long start;
+        private final long end;
+        private final long sequence;
+        private final Task task;
+        private final int priority;
+        private long maxEnd;
+        private Node left;
+        private Node right;
+
+        Node(long start, long end, long sequence, Task task, int priority) {
+            this.start = start;
+            this.end = end;
+            this.sequence = sequence;
+            this.task = task;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        int compareTo(Node other) {
+            return compareTo(other.start, other.sequence);
+        }
+
+        int compareTo(long otherStart, long otherSequence) {
+            int cmp = Long.compare(start, otherStart);
+            return cmp != 0 ? cmp : Long.compare(sequence, otherSequence);
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null) {
+                maxEnd = Math.max(maxEnd, left.maxEnd);
+            }
+            if (right != null) {
+                maxEnd = Math.max(maxEnd, right.maxEnd);
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package chatter.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Inverted index from lower-cased character trigrams to the tasks whose descriptions contain them.
+ * Postings are ordered by each task's insertion sequence number, which follows list order,
+ * so matches come out in the same order as the {@link IndexedTaskList}.
+ * Each posting is a pair of primitive arrays rather than a tree, so an entry costs a {@code long}
+ * and a reference, and tasks indexed in list order are simply appended.
+ */
+class KeywordIndex {
+    /** Length of the n-grams stored in the index */
+    private static final int GRAM_LENGTH = 3;
+
+    /** Postings keyed by packed trigram */
+    private final HashMap<Long, Posting> postings = new HashMap<>();
+
+    /**
+     * Indexes the description of {@code t}.
+     *
+     * @param t the task to index
+     * @param sequence the sequence number of the task in its {@code IndexedTaskList}
+     */
+    void add(Task t, long sequence) {
+        for (long gram : grams(normalize(t.getDescription()))) {
+            postings.computeIfAbsent(gram, key -> new Posting()).add(sequence, t);
+        }
+    }
+
+    /**
+     * Removes {@code t} from the index.
+     *
+     * @param t the task to remove
+     * @param sequence the sequence number the task was indexed with
+     */
+    void remove(Task t, long sequence) {
+        for (long gram : grams(normalize(t.getDescription()))) {
+            Posting posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(sequence);
+                if (posting.liveCount == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the tasks whose descriptions contain every whitespace-separated word of {@code query},
+     * ignoring case. Candidates are taken from the shortest posting list among the query's trigrams
+     * and then verified, so the cost depends on that list rather than on the size of the task list.
+     * Queries made up only of words shorter than a trigram fall back to scanning {@code allTasks}.
+     *
+     * @param query the words to look for
+     * @param allTasks every task in list order, used when no trigram can narrow the search
+     * @return the matching tasks in list order
+     */
+    List<Task> search(String query, List<Task> allTasks) {
+        String[] words = queryWords(query);
+        Posting candidates = null;
+        for (String word : words) {
+            for (long gram : grams(word)) {
+                Posting posting = postings.get(gram);
+                if (posting == null) {
+                    return Collections.emptyList();
+                }
+                if (candidates == null || posting.liveCount < candidates.liveCount) {
+                    candidates = posting;
+                }
+            }
+        }
+        List<Task> matches = new ArrayList<>();
+        if (candidates == null) {
+            for (Task t : allTasks) {
+                if (matches(t, words)) {
+                    matches.add(t);
+                }
+            }
+            return matches;
+        }
+        for (int i = 0; i < candidates.size; i++) {
+            Task t = candidates.tasks[i];
+            if (t != null && matches(t, words)) {
+                matches.add(t);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Splits a query into the lower-cased words that {@link #matches(Task, String[])} looks for.
+     *
+     * @param query the whitespace-separated words to search for
+     * @return the words of the query
+     */
+    static String[] queryWords(String query) {
+        return normalize(query).trim().split("\\s+");
+    }
+
+    /**
+     * Returns whether the description of {@code t} contains every one of {@code words}, ignoring case.
+     *
+     * @param t the task to check
+     * @param words words returned by {@link #queryWords(String)}
+     * @return {@code true} if every word occurs in the description
+     */
+    static boolean matches(Task t, String[] words) {
+        String description = normalize(t.getDescription());
+        for (String word : words) {
+            if (!description.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the distinct trigrams of {@code text}, each packed into a {@code long}, in ascending order.
+     */
+    private static long[] grams(String text) {
+        int count = Math.max(0, text.length() - GRAM_LENGTH + 1);
+        long[] grams = new long[count];
+        for (int i = 0; i < count; i++) {
+            long gram = 0;
+            for (int j = i; j < i + GRAM_LENGTH; j++) {
+                gram = (gram << Character.SIZE) | text.charAt(j);
+            }
+            grams[i] = gram;
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || grams[i] != grams[distinct - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return distinct == count ? grams : Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Tasks whose descriptions contain one trigram, as parallel arrays sorted by sequence number.
+     * A removed task leaves an empty slot behind, and the slots are compacted once most of them are empty,
+     * so removals do not shift the arrays.
+     */
+    private static class Posting {
+        /** Sequence number of the task in each slot */
+        private long[] sequences = new long[2];
+
+        /** Task in each slot, or {@code null} if it was removed */
+        private Task[] tasks = new Task[2];
+
+        /** Number of slots used */
+        private int size;
+
+        /** Number of slots holding a task */
+        private int liveCount;
+
+        void add(long sequence, Task t) {
+            int slot = size == 0 || sequence > sequences[size - 1]
+                    ? -size - 1
+                    : Arrays.binarySearch(sequences, 0, size, sequence);
+            if (slot >= 0) {
+                if (tasks[slot] == null) {
+                    liveCount++;
+                }
+                tasks[slot] = t;
+                return;
+            }
+            slot = -slot - 1;
+            if (size == sequences.length) {
+                sequences = Arrays.copyOf(sequences, size * 2);
+                tasks = Arrays.copyOf(tasks, size * 2);
+            }
+            System.arraycopy(sequences, slot, sequences, slot + 1, size - slot);
+            System.arraycopy(tasks, slot, tasks, slot + 1, size - slot);
+            sequences[slot] = sequence;
+            tasks[slot] = t;
+            size++;
+            liveCount++;
+        }
+
+        void remove(long sequence) {
+            int slot = Arrays.binarySearch(sequences, 0, size, sequence);
+            if (slot < 0 || tasks[slot] == null) {
+                return;
+            }
+            tasks[slot] = null;
+            liveCount--;
+            if (liveCount * 2 < size) {
+                compact();
+            }
+        }
+
+        private void compact() {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (tasks[i] != null) {
+                    sequences[kept] = sequences[i];
+                    tasks[kept++] = tasks[i];
+                }
+            }
+            Arrays.fill(tasks, kept, size, null);
+            size = kept;
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package chatter.task;
 
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
 import chatter.exception.ChatterException;
 
 /**
@@ -7,12 +11,18 @@ import chatter.exception.ChatterException;
  * Provides the description and completion status, as well as common methods for marking tasks.
  */
 public abstract class Task {
+    /** Separator between the fields of the save format, compiled once as every line of the file is split on it */
+    private static final Pattern FIELD_SEPARATOR = Pattern.compile(" \\| ");
+
     /** Description of the task */
     protected String description;
 
     /** Completion status of the task */
     protected boolean isDone;
 
+    /** Memoized {@link #toString()} of subclasses that are costly to render, or {@code null}; cleared on change */
+    protected String rendered;
+
     /**
      * Constructs a new Task with the given description.
      *
@@ -32,11 +42,21 @@ public abstract class Task {
         return (isDone ? "X" : " ");
     }
 
+    /**
+     * Returns whether the task is done.
+     *
+     * @return {@code true} if the task is marked as done
+     */
+    public boolean isDone() {
+        return isDone;
+    }
+
     /**
      * Marks the task as done.
      */
     public void markAsDone() {
         isDone = true;
+        rendered = null;
     }
 
     /**
@@ -44,6 +64,7 @@ public abstract class Task {
      */
     public void unmark() {
         isDone = false;
+        rendered = null;
     }
 
     /**
@@ -70,24 +91,37 @@ public abstract class Task {
      * @throws ChatterException If the line is invalid or cannot be parsed.
      */
     public static Task fromSaveFormat(String line) throws ChatterException {
-        String[] parts = line.split(" \\| ");
+        return fromSaveFormat(line, UnaryOperator.identity());
+    }
+
+    /**
+     * Parses a line from the storage file and creates the corresponding Task object,
+     * passing the description through {@code descriptions} so that equal descriptions can share one string.
+     *
+     * @param line Line from the file in save format.
+     * @param descriptions Function returning the string to use for an equal description.
+     * @return Task object represented by the line.
+     * @throws ChatterException If the line is invalid or cannot be parsed.
+     */
+    public static Task fromSaveFormat(String line, UnaryOperator<String> descriptions) throws ChatterException {
+        String[] parts = FIELD_SEPARATOR.split(line);
         String type = parts[0];
         boolean isDone = parts[1].equals("1");
         switch (type) {
         case "T":
-            Task tt = new ToDo(parts[2]);
+            Task tt = new ToDo(descriptions.apply(parts[2]));
             if (isDone) {
                 tt.markAsDone();
             }
             return tt;
         case "D":
-            Task td = new Deadline(parts[2], parts[3]);
+            Task td = new Deadline(descriptions.apply(parts[2]), parts[3]);
             if (isDone) {
                 td.markAsDone();
             }
             return td;
         case "E":
-            Task te = new Event(parts[2], parts[3], parts[4]);
+            Task te = new Event(descriptions.apply(parts[2]), parts[3], parts[4]);
             if (isDone) {
                 te.markAsDone();
             }
@@ -97,18 +131,27 @@ public abstract class Task {
         }
     }
 
+    /**
+     * Returns whether {@code obj} is the same kind of task with the same description.
+     * The completion status is not part of a task's identity.
+     */
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
             return true;
         }
-        if (!(obj instanceof Task)) {
+        if (obj == null || getClass() != obj.getClass()) {
             return false;
         }
         Task newTask = (Task) obj;
         return description.equals(newTask.getDescription());
     }
 
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass(), description);
+    }
+
     @Override
     public String toString() {
         return "[" + getStatusIcon() + "] " + description;
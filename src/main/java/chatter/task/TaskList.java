@@ -1,47 +1,36 @@
 package chatter.task;
 
-import java.util.ArrayList;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
 
 import chatter.exception.ChatterException;
 
 /**
  * Represents a collection of {@link Task} objects.
  * Provides methods to add, remove, and access tasks.
+ * <p>
+ * {@link IndexedTaskList} is the usual implementation; {@link ColumnarTaskList} and {@link ConcurrentTaskList}
+ * trade some of its speed for a smaller heap or for reads from other threads.
+ * </p>
  */
-public class TaskList {
-    /** Internal list storing the tasks */
-    private final ArrayList<Task> tasks;
-
-    /**
-     * Constructs an empty {@code TaskList}.
-     */
-    public TaskList() {
-        this.tasks = new ArrayList<>();
-    }
-
+public interface TaskList {
     /**
-     * Constructs a {@code TaskList} with an existing list of tasks.
+     * Adds a task to the end of the list.
      *
-     * @param tasks {@link ArrayList} of tasks to initialize the {@code TaskList} with.
+     * @param t {@code Task} to add.
+     * @throws ChatterException If the given task already exist in the task list.
      */
-    public TaskList(ArrayList<Task> tasks) {
-        this.tasks = tasks;
-    }
+    void add(Task t) throws ChatterException;
 
     /**
-     * Adds a task to the {@code TaskList}.
+     * Inserts a task at the specified index, shifting the task at that index and those after it.
      *
-     * @param t {@code Task} to add.
-     * @throws ChatterException If the given task already exist in the task list.
+     * @param index Index the task will have, from 0 to the number of tasks.
+     * @param t {@code Task} to insert.
+     * @throws ChatterException If the index is out of bounds or the given task already exist in the task list.
      */
-    public void add(Task t) throws ChatterException {
-        for (Task existing: tasks) {
-            if (t.equals(existing)) {
-                throw new ChatterException("This task already exists in your task list!");
-            }
-        }
-        tasks.add(t);
-    }
+    void insert(int index, Task t) throws ChatterException;
 
     /**
      * Removes the task at the specified index.
@@ -49,12 +38,7 @@ public class TaskList {
      * @param index Index of the task to remove.
      * @throws ChatterException If the index is out of bounds.
      */
-    public void remove(int index) throws ChatterException {
-        if (index < 0 || index >= tasks.size()) {
-            throw new ChatterException("You don't have that many task!");
-        }
-        tasks.remove(index);
-    }
+    void remove(int index) throws ChatterException;
 
     /**
      * Returns the task at the specified index.
@@ -63,45 +47,127 @@ public class TaskList {
      * @return {@code Task} at the given index.
      * @throws ChatterException If the index is out of bounds.
      */
-    public Task get(int index) throws ChatterException {
-        if (index < 0 || index >= tasks.size()) {
-            throw new ChatterException("You don't have that many task!");
-        }
-        return tasks.get(index);
-    }
+    Task get(int index) throws ChatterException;
+
+    /**
+     * Marks the task at the specified index as done.
+     *
+     * @param index Index of the task to mark.
+     * @return the marked {@code Task}.
+     * @throws ChatterException If the index is out of bounds.
+     */
+    Task mark(int index) throws ChatterException;
+
+    /**
+     * Marks the task at the specified index as not done.
+     *
+     * @param index Index of the task to unmark.
+     * @return the unmarked {@code Task}.
+     * @throws ChatterException If the index is out of bounds.
+     */
+    Task unmark(int index) throws ChatterException;
+
+    /**
+     * Removes the tasks at every index in {@code indexes}.
+     *
+     * @param indexes the indexes of the tasks to remove
+     * @return the removed tasks, in list order
+     * @throws ChatterException If any index is out of bounds; no task is removed in that case.
+     */
+    List<Task> removeAll(BitSet indexes) throws ChatterException;
+
+    /**
+     * Marks the tasks at every index in {@code indexes} as done.
+     *
+     * @param indexes the indexes of the tasks to mark
+     * @return the marked tasks, in list order
+     * @throws ChatterException If any index is out of bounds; no task is marked in that case.
+     */
+    List<Task> markAll(BitSet indexes) throws ChatterException;
 
     /**
-     * Returns the number of tasks in the {@code TaskList}.
+     * Marks the tasks at every index in {@code indexes} as not done.
+     *
+     * @param indexes the indexes of the tasks to unmark
+     * @return the unmarked tasks, in list order
+     * @throws ChatterException If any index is out of bounds; no task is unmarked in that case.
+     */
+    List<Task> unmarkAll(BitSet indexes) throws ChatterException;
+
+    /**
+     * Returns the indexes of the tasks that are done.
+     *
+     * @return the indexes of the done tasks
+     */
+    BitSet selectDone();
+
+    /**
+     * Returns the indexes of the tasks whose descriptions contain every word of the query, ignoring case.
+     *
+     * @param query the whitespace-separated words to search for in task descriptions
+     * @return the indexes of the matching tasks
+     */
+    BitSet selectMatching(String query);
+
+    /**
+     * Starts recording changes, so that they can all be undone by {@link #rollback()}
+     * until {@link #commit()} is called.
+     *
+     * @throws IllegalStateException if a transaction is already in progress
+     */
+    void beginTransaction();
+
+    /**
+     * Keeps the changes made since {@link #beginTransaction()} and stops recording them.
+     * Does nothing outside a transaction.
+     */
+    void commit();
+
+    /**
+     * Undoes every change made since {@link #beginTransaction()}, newest first, and stops recording.
+     * Does nothing outside a transaction.
+     */
+    void rollback();
+
+    /**
+     * Returns the number of tasks in the list.
      *
      * @return Number of tasks.
      */
-    public int getSize() {
-        return tasks.size();
-    }
+    int getSize();
 
     /**
-     * Returns the internal list of all tasks.
+     * Returns a read-only view of all tasks.
+     * Tasks must be added and removed through the {@code TaskList} itself.
      *
-     * @return {@code ArrayList} of tasks.
+     * @return unmodifiable {@code List} of tasks.
      */
-    public ArrayList<Task> getAllTasks() {
-        return tasks;
-    }
+    List<Task> getAllTasks();
 
     /**
-     * Returns a new {@code TaskList} containing all tasks whose descriptions
-     * contain the specified keyword.
+     * Returns the tasks whose descriptions contain every word of the query, ignoring case.
      *
-     * @param keyword the keyword to search for in task descriptions
-     * @return a new {@code TaskList} with all matching tasks
+     * @param query the whitespace-separated words to search for in task descriptions
+     * @return a read-only list of the matching tasks, in list order
      */
-    public TaskList findMatching(String keyword) throws ChatterException {
-        TaskList matching = new TaskList();
-        for (Task t : tasks) {
-            if (t.getDescription().contains(keyword)) {
-                matching.add(t);
-            }
-        }
-        return matching;
+    List<Task> findMatching(String query);
+
+    /**
+     * Returns the deadlines due and the events taking place on the given date.
+     *
+     * @param date the date to look up
+     * @return a read-only list of the matching tasks, in list order
+     */
+    default List<Task> findOn(LocalDate date) {
+        return findBetween(date, date);
     }
+
+    /**
+     * Returns the deadlines due and the events taking place on any day in the given range.
+     *
+     * @param from the first day of the range
+     * @param to the last day of the range, inclusive
+     * @return a read-only list of the matching tasks, in list order
+     */
+    List<Task> findBetween(LocalDate from, LocalDate to);
 }
@@ -0,0 +1,36 @@
+package chatter.task;
+
+import java.util.ArrayList;
+
+import chatter.exception.ChatterException;
+
+/**
+ * Read-only sequence of tasks that are materialized on demand, for example from a task file
+ * that has only been indexed rather than parsed.
+ */
+public interface TaskSource {
+    /**
+     * Returns the number of tasks in the source.
+     *
+     * @return number of tasks
+     */
+    int size();
+
+    /**
+     * Returns the task at the specified index, materializing it if necessary.
+     * Repeated calls return the same {@code Task} object.
+     *
+     * @param index Index of the task to retrieve.
+     * @return {@code Task} at the given index.
+     * @throws ChatterException If the index is out of bounds or the task cannot be read.
+     */
+    Task get(int index) throws ChatterException;
+
+    /**
+     * Materializes every remaining task and releases the source.
+     * Tasks that cannot be read are skipped.
+     *
+     * @return all readable tasks in order, reusing tasks already returned by {@link #get(int)}
+     */
+    ArrayList<Task> materialize();
+}
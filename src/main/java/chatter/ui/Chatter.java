@@ -1,9 +1,23 @@
 package chatter.ui;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
 import chatter.exception.ChatterException;
-import chatter.gui.Main;
+import chatter.metrics.Metrics;
 import chatter.parser.Parser;
+import chatter.parser.UndoHistory;
+import chatter.storage.LoadMode;
 import chatter.storage.Storage;
+import chatter.storage.TaskListBackend;
 import chatter.task.TaskList;
 
 /**
@@ -12,6 +26,26 @@ import chatter.task.TaskList;
  * and provides responses to user input.
  */
 public class Chatter {
+    /** Task file used when no other is given */
+    public static final String DEFAULT_FILE_PATH = "data/tasks.txt";
+
+    /** Command line usage of the headless mode */
+    private static final String USAGE =
+            "Usage: java chatter.ui.Chatter [--quiet] [--columnar | --concurrent] [--metrics]"
+            + " [--data <task file>] [<command file>]";
+
+    /** Size of the terminal input and output buffers, in chars */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Window within which bursts of changes are coalesced into a single background write */
+    private static final long SAVE_WINDOW_MILLIS = 200;
+
+    /** Number of slots in the pool through which loaded tasks with equal descriptions share one string */
+    private static final int DESCRIPTION_POOL_SIZE = 1 << 16;
+
+    /** Name batches of commands are counted and timed under */
+    private static final String BATCH_COMMAND = "batch";
+
     /** Handles reading from and writing to the tasks file */
     private final Storage storage;
 
@@ -21,6 +55,15 @@ public class Chatter {
     /** Handles user interaction via the console */
     private final Ui ui;
 
+    /** Commands of this session that can be undone and redone */
+    private final UndoHistory history = new UndoHistory(UndoHistory.DEFAULT_CAPACITY);
+
+    /** Counts and times the commands of this session */
+    private final Metrics metrics = new Metrics();
+
+    /** Path to the file for storing tasks */
+    private final String filePath;
+
     /**
      * Constructs a new {@code Chatter} instance.
      * Initializes the {@code Ui}, loads tasks from the specified {@code Storage} file,
@@ -29,34 +72,184 @@ public class Chatter {
      * @param filePath the path to the file for storing tasks
      */
     public Chatter(String filePath) {
+        this(filePath, TaskListBackend.INDEXED);
+    }
+
+    /**
+     * Constructs a new {@code Chatter} instance that keeps its tasks in the given kind of {@link TaskList}.
+     *
+     * @param filePath the path to the file for storing tasks
+     * @param backend the implementation of {@code TaskList} to keep the tasks in
+     */
+    public Chatter(String filePath, TaskListBackend backend) {
         assert filePath != null : "File path must not be null";
+        this.filePath = filePath;
         this.ui = new Ui();
+        this.ui.setMetrics(metrics);
         this.storage = new Storage(filePath);
+        this.storage.setMetrics(metrics);
+        this.storage.setJournaled(true);
+        this.storage.setBackend(backend);
+        this.storage.setLoadMode(LoadMode.PARALLEL);
+        this.storage.setSaveWindow(SAVE_WINDOW_MILLIS);
+        this.storage.setDescriptionPoolSize(DESCRIPTION_POOL_SIZE);
         this.tasks = storage.load();
+        this.metrics.setGauges(tasks::getSize, storage::getDiskUsage);
+    }
+
+    /**
+     * Turns on the metrics of this session and publishes them as an MXBean, so that they can also be
+     * read and turned off through JMX. Metrics can otherwise be turned on with {@code stats on}.
+     */
+    public void enableMetrics() {
+        metrics.setEnabled(true);
+        metrics.register(filePath);
     }
 
     /**
      * Generates a response for the given user input.
+     * Any failure to save earlier changes is reported after the response.
      *
      * @param input user input string.
      * @return response message string
      */
     public String getResponse(String input) {
+        if (!metrics.isEnabled()) {
+            return respond(input);
+        }
+        Metrics.CommandTimer timer = metrics.startCommand(Parser.getCommandWord(input));
+        String response = respond(input);
+        timer.finish();
+        return response;
+    }
+
+    private String respond(String input) {
+        StringBuilder response = new StringBuilder();
+        try {
+            response.append(Parser.parse(input, tasks, ui, storage, history));
+        } catch (ChatterException e) {
+            response.append(ui.showError(e.getMessage()));
+        }
+        return appendSaveErrors(response);
+    }
+
+    /**
+     * Runs {@code commands} as a single unit and generates a summary response.
+     * The changes are saved once at the end, and none of them are kept if any command fails.
+     * A single {@code undo} reverses the whole batch.
+     *
+     * @param commands user input strings, one command each.
+     * @return summary message string, or the error of the first command that failed
+     */
+    public String getBatchResponse(List<String> commands) {
+        Metrics.CommandTimer timer = metrics.isEnabled() ? metrics.startCommand(BATCH_COMMAND) : null;
+        StringBuilder response = new StringBuilder();
         try {
-            return Parser.parse(input, tasks, ui, storage);
+            response.append(Parser.parseBatch(commands, tasks, ui, storage, history));
         } catch (ChatterException e) {
-            return ui.showError(e.getMessage());
+            response.append(ui.showError(e.getMessage()));
+        }
+        if (timer != null) {
+            timer.finish();
         }
+        return appendSaveErrors(response);
     }
 
     /**
-     * The main method for Chatter.
-     * Since this application is now GUI-only, this entry point is disabled.
-     * Prints advisory message to run {@link Main} instead.
+     * Flushes and releases the underlying {@code Storage}, waiting for any pending writes to complete.
+     */
+    public void close() {
+        storage.close();
+        metrics.unregister();
+    }
+
+    private String appendSaveErrors(StringBuilder response) {
+        for (String error : storage.takeErrors()) {
+            response.append("\n").append(ui.showError(error));
+        }
+        return response.toString();
+    }
+
+    /**
+     * Runs the commands read from {@code in}, one per line, until {@code bye} or the end of the input.
+     * Responses are written to {@code out}, which is only flushed once no more input is ready,
+     * so piped input is answered in large writes while interactive input is still answered line by line.
+     *
+     * @param in the commands to run
+     * @param out where responses are written
+     * @param isQuiet whether to run the commands without writing any responses
+     * @throws IOException if reading the commands or writing the responses fails
+     */
+    public void run(BufferedReader in, Writer out, boolean isQuiet) throws IOException {
+        if (!isQuiet) {
+            out.write(ui.showWelcome());
+            out.write('\n');
+        }
+        String input;
+        while ((input = in.readLine()) != null) {
+            String response = getResponse(input);
+            if (!isQuiet) {
+                out.write(response);
+                out.write('\n');
+            }
+            if (input.equals("bye")) {
+                break;
+            }
+            if (!in.ready()) {
+                out.flush();
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Runs Chatter without a GUI, reading commands from a file or standard input
+     * and writing responses to standard output. JavaFX is not loaded in this mode.
      *
-     * @param args command line arguments (not used)
+     * @param args {@code --quiet} to suppress responses, {@code --columnar} to keep the tasks in parallel arrays,
+     *     {@code --concurrent} to keep them in copy-on-write snapshots, {@code --metrics} to time the commands,
+     *     {@code --data <task file>} to use another task file, and optionally the file to read commands from
      */
     public static void main(String[] args) {
-        System.out.println("Chatter no longer supports CLI mode. Please run Main instead.");
+        boolean isQuiet = false;
+        boolean isMetered = false;
+        TaskListBackend backend = TaskListBackend.INDEXED;
+        String filePath = DEFAULT_FILE_PATH;
+        String commandFile = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--quiet") || args[i].equals("-q")) {
+                isQuiet = true;
+            } else if (args[i].equals("--columnar")) {
+                backend = TaskListBackend.COLUMNAR;
+            } else if (args[i].equals("--concurrent")) {
+                backend = TaskListBackend.CONCURRENT;
+            } else if (args[i].equals("--metrics")) {
+                isMetered = true;
+            } else if (args[i].equals("--data") && i + 1 < args.length) {
+                filePath = args[++i];
+            } else if (commandFile == null && !args[i].startsWith("-")) {
+                commandFile = args[i];
+            } else {
+                System.err.println(USAGE);
+                System.exit(2);
+                return;
+            }
+        }
+
+        Chatter chatter = new Chatter(filePath, backend);
+        if (isMetered) {
+            chatter.enableMetrics();
+        }
+        try (BufferedReader in = commandFile == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), BUFFER_SIZE)
+                : Files.newBufferedReader(Path.of(commandFile), StandardCharsets.UTF_8);
+                Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                        BUFFER_SIZE)) {
+            chatter.run(in, out, isQuiet);
+        } catch (IOException e) {
+            System.err.println("Could not run the commands: " + e.getMessage());
+        } finally {
+            chatter.close();
+        }
     }
 }
@@ -2,10 +2,11 @@ package chatter.ui;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 import chatter.exception.ChatterException;
-import chatter.task.Deadline;
-import chatter.task.Event;
+import chatter.metrics.Metrics;
+import chatter.metrics.Phase;
 import chatter.task.Task;
 import chatter.task.TaskList;
 
@@ -14,13 +15,47 @@ import chatter.task.TaskList;
  * including returning output messages as {@link String}.
  */
 public class Ui {
+    /** Number of tasks on each page of {@code list} unless another page size is given */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
     /** Divider line used for formatting messages */
     private static final String LINE = "   _______________________________________________________";
 
+    /** Typical length of a rendered task line, used to size the list buffer */
+    private static final int ESTIMATED_TASK_LENGTH = 64;
+
+    /** Formatter for displaying dates in date queries */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+
+    /** Times the rendering of task lists and provides the {@code stats} report */
+    private Metrics metrics = new Metrics();
+
     /** Constructs a new {@code Ui} instance */
     public Ui() {
     }
 
+    /**
+     * Sets the metrics that time the rendering of task lists and are shown by {@link #showStats()}.
+     *
+     * @param metrics the metrics of the session
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the greeting shown when Chatter starts in the terminal.
+     *
+     * @return welcome message string
+     */
+    public String showWelcome() {
+        return LINE + "\n   Hello! I'm Chatter\n   What can I do for you?\n" + LINE;
+    }
+
     /**
      * Returns the exit message.
      *
@@ -31,20 +66,50 @@ public class Ui {
     }
 
     /**
-     * Returns a formatted string of all tasks currently in the TaskList.
+     * Returns a formatted string of the first page of tasks in the TaskList.
      *
      * @param tasks the {@link TaskList} to display.
      * @return formatted string of list of tasks
      * @throws ChatterException if accessing any task fails
      */
     public String showList(TaskList tasks) throws ChatterException {
-        StringBuilder sb = new StringBuilder();
+        return showList(tasks, 1, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Returns a formatted string of one page of tasks in the TaskList.
+     * Only the tasks on the page are rendered, so the string stays small however long the list is.
+     * When the list has more than one page, a line saying which tasks are shown is added.
+     *
+     * @param tasks the {@link TaskList} to display.
+     * @param page the page to display, starting from 1.
+     * @param pageSize the number of tasks on each page.
+     * @return formatted string of the page of tasks
+     * @throws ChatterException if the page does not exist or accessing any task fails
+     */
+    public String showList(TaskList tasks, int page, int pageSize) throws ChatterException {
+        assert page > 0 && pageSize > 0 : "Page and page size must be positive";
+        int size = tasks.getSize();
+        int pageCount = Math.max(1, (int) ((size + (long) pageSize - 1) / pageSize));
+        if (page > pageCount) {
+            throw new ChatterException("Your list only has " + pageCount
+                    + (pageCount == 1 ? " page!" : " pages!"));
+        }
+        long start = metrics.start();
+        int from = (int) Math.min(size, (long) (page - 1) * pageSize);
+        int to = (int) Math.min(size, (long) from + pageSize);
+        StringBuilder sb = new StringBuilder(LINE.length() * 2 + (to - from) * ESTIMATED_TASK_LENGTH);
         sb.append(LINE).append("\n");
         sb.append("   Here are the tasks in your list:\n");
-        for (int i = 0; i < tasks.getSize(); i++) {
+        for (int i = from; i < to; i++) {
             sb.append("   ").append(i + 1).append(".").append(tasks.get(i)).append("\n");
         }
+        if (pageCount > 1) {
+            sb.append("   Showing tasks ").append(from + 1).append("-").append(to).append(" of ").append(size)
+                    .append(" (page ").append(page).append(" of ").append(pageCount).append(").\n");
+        }
         sb.append(LINE);
+        metrics.record(Phase.RENDER, start);
         return sb.toString();
     }
 
@@ -60,6 +125,42 @@ public class Ui {
                 + t + "\n   Now you have " + size + " tasks in the list.\n" + LINE;
     }
 
+    /**
+     * Returns a summary of a batch of commands that all succeeded.
+     *
+     * @param commandCount the number of commands that were run.
+     * @param size the new number of tasks in the list.
+     * @return formatted batch summary string
+     */
+    public String showBatchDone(int commandCount, int size) {
+        return LINE + "\n   Done! I ran " + commandCount + (commandCount == 1 ? " command" : " commands")
+                + ".\n   Now you have " + size + " tasks in the list.\n" + LINE;
+    }
+
+    /**
+     * Returns a message when a command is undone.
+     *
+     * @param command the command that was undone.
+     * @param size the new number of tasks in the list.
+     * @return formatted undo confirmation string
+     */
+    public String showUndone(String command, int size) {
+        return LINE + "\n   OK, I've undone this:\n     "
+                + command + "\n   Now you have " + size + " tasks in the list.\n" + LINE;
+    }
+
+    /**
+     * Returns a message when an undone command is run again.
+     *
+     * @param command the command that was redone.
+     * @param size the new number of tasks in the list.
+     * @return formatted redo confirmation string
+     */
+    public String showRedone(String command, int size) {
+        return LINE + "\n   OK, I've redone this:\n     "
+                + command + "\n   Now you have " + size + " tasks in the list.\n" + LINE;
+    }
+
     /**
      * Returns a message when a task is deleted.
      *
@@ -94,6 +195,57 @@ public class Ui {
                 + t + "\n" + LINE;
     }
 
+    /**
+     * Returns a message when several tasks are deleted at once.
+     *
+     * @param removed the tasks that were deleted.
+     * @param size the new number of tasks in the list.
+     * @return formatted delete confirmation string
+     */
+    public String showDeletedAll(List<Task> removed, int size) {
+        return showChanged("Noted. I've removed ", removed, "   Now you have " + size + " tasks in the list.\n");
+    }
+
+    /**
+     * Returns a message when several tasks are marked as done at once.
+     *
+     * @param marked the tasks that were marked.
+     * @return formatted marked message string
+     */
+    public String showMarkedAll(List<Task> marked) {
+        return showChanged("Nice! I've marked ", marked, "");
+    }
+
+    /**
+     * Returns a message when several tasks are unmarked at once.
+     *
+     * @param unmarked the tasks that were unmarked.
+     * @return formatted unmarked message string
+     */
+    public String showUnmarkedAll(List<Task> unmarked) {
+        return showChanged("OK, I've unmarked ", unmarked, "");
+    }
+
+    /**
+     * Lists the changed tasks after {@code header}, showing at most {@link #DEFAULT_PAGE_SIZE} of them.
+     */
+    private String showChanged(String header, List<Task> changed, String footer) {
+        long start = metrics.start();
+        int shown = Math.min(changed.size(), DEFAULT_PAGE_SIZE);
+        StringBuilder sb = new StringBuilder(LINE.length() * 2 + (shown + 2) * ESTIMATED_TASK_LENGTH);
+        sb.append(LINE).append("\n   ").append(header).append(changed.size())
+                .append(changed.size() == 1 ? " task" : " tasks").append(shown > 0 ? ":\n" : ".\n");
+        for (int i = 0; i < shown; i++) {
+            sb.append("     ").append(changed.get(i)).append("\n");
+        }
+        if (changed.size() > shown) {
+            sb.append("     ...and ").append(changed.size() - shown).append(" more.\n");
+        }
+        sb.append(footer).append(LINE);
+        metrics.record(Phase.RENDER, start);
+        return sb.toString();
+    }
+
     /**
      * Returns an error message.
      *
@@ -107,37 +259,41 @@ public class Ui {
     /**
      * Returns all tasks that occur on a specified date.
      *
-     * @param date the date to filter tasks.
-     * @param tasks the {@code TaskList} to search through.
+     * @param date the date the tasks were filtered by.
+     * @param tasksOnDate the deadlines and events occurring on that date.
      * @return formatted string of list of tasks on that date or a message if none found
      */
-    public String showTasksOnDate(LocalDate date, TaskList tasks) {
+    public String showTasksOnDate(LocalDate date, List<Task> tasksOnDate) {
+        return showDatedTasks("   Tasks occurring on " + date.format(DATE_FORMAT) + ":\n",
+                tasksOnDate, "   No tasks on this date.\n");
+    }
+
+    /**
+     * Returns all tasks that occur within a range of dates.
+     *
+     * @param from the first date of the range.
+     * @param to the last date of the range.
+     * @param tasksBetween the deadlines and events occurring within the range.
+     * @return formatted string of list of tasks in that range or a message if none found
+     */
+    public String showTasksBetween(LocalDate from, LocalDate to, List<Task> tasksBetween) {
+        return showDatedTasks("   Tasks occurring from " + from.format(DATE_FORMAT)
+                + " to " + to.format(DATE_FORMAT) + ":\n", tasksBetween, "   No tasks in this period.\n");
+    }
+
+    private String showDatedTasks(String header, List<Task> datedTasks, String emptyMessage) {
+        long start = metrics.start();
         StringBuilder sb = new StringBuilder();
         sb.append(LINE).append("\n");
-        sb.append("   Tasks occurring on ")
-                .append(date.format(DateTimeFormatter.ofPattern("MMM dd yyyy")))
-                .append(":\n");
-        boolean isFound = false;
-        for (Task task : tasks.getAllTasks()) {
-            if (task instanceof Deadline) {
-                Deadline deadlineTask = (Deadline) task;
-                if (deadlineTask.getDateTime().toLocalDate().equals(date)) {
-                    sb.append("   ").append(deadlineTask).append("\n");
-                    isFound = true;
-                }
-            } else if (task instanceof Event) {
-                Event eventTask = (Event) task;
-                if (!date.isBefore(eventTask.getFrom().toLocalDate())
-                        && !date.isAfter(eventTask.getTo().toLocalDate())) {
-                    sb.append("   ").append(eventTask).append("\n");
-                    isFound = true;
-                }
-            }
+        sb.append(header);
+        for (Task task : datedTasks) {
+            sb.append("   ").append(task).append("\n");
         }
-        if (!isFound) {
-            sb.append("   No tasks on this date.\n");
+        if (datedTasks.isEmpty()) {
+            sb.append(emptyMessage);
         }
         sb.append(LINE);
+        metrics.record(Phase.RENDER, start);
         return sb.toString();
     }
 
@@ -146,16 +302,26 @@ public class Ui {
      *
      * @param matchingTasks the list of tasks that matched the search keyword.
      * @return formatted matching tasks string
-     * @throws ChatterException if accessing tasks fails
      */
-    public String showFound(TaskList matchingTasks) throws ChatterException {
+    public String showFound(List<Task> matchingTasks) {
+        long start = metrics.start();
         StringBuilder sb = new StringBuilder();
         sb.append(LINE).append("\n");
         sb.append("   Here are the matching tasks in your list:\n");
-        for (int i = 0; i < matchingTasks.getSize(); i++) {
+        for (int i = 0; i < matchingTasks.size(); i++) {
             sb.append("   ").append(i + 1).append(".").append(matchingTasks.get(i)).append("\n");
         }
         sb.append(LINE);
+        metrics.record(Phase.RENDER, start);
         return sb.toString();
     }
+
+    /**
+     * Returns the counts and latencies of the commands run so far, and the size of the task list and file.
+     *
+     * @return formatted metrics report
+     */
+    public String showStats() {
+        return LINE + "\n   Here are the metrics of this session:\n" + metrics + "\n" + LINE;
+    }
 }
@@ -0,0 +1,68 @@
+package chatter.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import javax.management.JMX;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+import chatter.ui.Chatter;
+
+public class MetricsTest {
+
+    @Test
+    public void getPercentileNanos_withinAnEighth() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(99));
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos * 1000);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMaxNanos());
+        long p50 = histogram.getPercentileNanos(50);
+        long p99 = histogram.getPercentileNanos(99);
+        assertTrue(Math.abs(p50 - 50_000_000) <= 50_000_000 / 8, "p50 was " + p50);
+        assertTrue(Math.abs(p99 - 99_000_000) <= 99_000_000 / 8, "p99 was " + p99);
+        assertEquals(100_000_000, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void statsCommand_countsCommandsOnlyWhileOn() throws Exception {
+        Path file = Files.createTempDirectory("metrics").resolve("tasks.txt");
+        Chatter chatter = new Chatter(file.toString());
+        try {
+            chatter.getResponse("todo before");
+            assertTrue(chatter.getResponse("stats").contains("Metrics are off"));
+            chatter.getResponse("stats on");
+            chatter.getResponse("todo read");
+            chatter.getResponse("list");
+            chatter.getResponse("nonsense");
+            String report = chatter.getResponse("stats");
+            assertFalse(report.contains("Metrics are off"));
+            assertTrue(report.contains("Tasks: 2"), report);
+            assertTrue(report.contains("parse+execute"), report);
+
+            chatter.enableMetrics();
+            ObjectName name = new ObjectName("chatter:type=Metrics,file=" + ObjectName.quote(file.toString()));
+            MetricsMXBean bean = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(), name,
+                    MetricsMXBean.class);
+            Map<String, Long> counts = bean.getCommandCounts();
+            assertEquals(Map.of("list", 1L, "stats", 1L, "todo", 1L, "unknown", 1L), counts);
+            assertEquals(2, bean.getTaskCount());
+
+            assertTrue(chatter.getResponse("stats loud").contains("stats can only be followed by"));
+            chatter.getResponse("stats reset");
+            assertEquals(Map.of("stats", 1L), bean.getCommandCounts());
+        } finally {
+            chatter.close();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package chatter.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import chatter.exception.ChatterException;
+import chatter.storage.Storage;
+import chatter.task.IndexedTaskList;
+import chatter.task.Task;
+import chatter.task.TaskList;
+import chatter.task.ToDo;
+import chatter.ui.Ui;
+
+public class ParserTest {
+
+    @Test
+    public void parse_eventWithOnlySeparatorsAfterFrom_exceptionThrown() throws Exception {
+        Storage storage = new Storage(Files.createTempFile("test", ".txt").toString());
+        TaskList tasks = storage.load();
+        ChatterException e = assertThrows(ChatterException.class, () ->
+                Parser.parse("event party /from  /to ", tasks, new Ui(), storage));
+        assertEquals("/from and /to must be followed by "
+                + "event start and end time in yyyy-MM-dd HHmm format respectively!", e.getMessage());
+    }
+
+    @Test
+    public void parse_taskNumbers_sameRulesAsParseInt() throws Exception {
+        Storage storage = new Storage(Files.createTempFile("test", ".txt").toString());
+        TaskList tasks = storage.load();
+        Ui ui = new Ui();
+        Parser.parse("todo read book", tasks, ui, storage);
+        Parser.parse("mark +1", tasks, ui, storage);
+        assertEquals("T | 1 | read book", tasks.get(0).toSaveFormat());
+        ChatterException e = assertThrows(ChatterException.class, () -> Parser.parse("mark  1", tasks, ui, storage));
+        assertEquals("Task number must be an integer!", e.getMessage());
+        e = assertThrows(ChatterException.class, () -> Parser.parse("delete 1 ", tasks, ui, storage));
+        assertEquals("Task number must be an integer!", e.getMessage());
+        e = assertThrows(ChatterException.class, () -> Parser.parse("delete 2147483648", tasks, ui, storage));
+        assertEquals("Task number must be an integer!", e.getMessage());
+    }
+
+    @Test
+    public void parse_bulkSelections_appliedInOneRecordEach() throws Exception {
+        Path file = Files.createTempDirectory("test").resolve("tasks.txt");
+        Storage storage = new Storage(file.toString());
+        storage.setJournaled(true);
+        TaskList tasks = storage.load();
+        Ui ui = new Ui();
+        for (int i = 1; i <= 6; i++) {
+            Parser.parse("todo task " + i, tasks, ui, storage);
+        }
+        Parser.parse("mark 1, 3-4", tasks, ui, storage);
+        Parser.parse("unmark find task 3", tasks, ui, storage);
+        Parser.parse("delete 2-3,6", tasks, ui, storage);
+        Parser.parse("delete done", tasks, ui, storage);
+        ChatterException e = assertThrows(ChatterException.class, () -> Parser.parse("mark 1-3", tasks, ui, storage));
+        assertEquals("You don't have that many task!", e.getMessage());
+        storage.close();
+
+        assertEquals(List.of("M 0,2-3", "U 2", "R 1-2,5", "R 0-1"),
+                Files.readAllLines(file.resolveSibling("tasks.txt.journal.0")).subList(6, 10));
+        assertEquals(1, tasks.getSize());
+        assertEquals("T | 0 | task 5", tasks.get(0).toSaveFormat());
+        Storage reloaded = new Storage(file.toString());
+        reloaded.setJournaled(true);
+        assertEquals("T | 0 | task 5", reloaded.load().get(0).toSaveFormat());
+        reloaded.close();
+    }
+
+    @Test
+    public void parse_undoAndRedo_reverseCommandsAndPersist() throws Exception {
+        Path file = Files.createTempDirectory("test").resolve("tasks.txt");
+        Storage storage = new Storage(file.toString());
+        storage.setJournaled(true);
+        TaskList tasks = storage.load();
+        Ui ui = new Ui();
+        UndoHistory history = new UndoHistory(UndoHistory.DEFAULT_CAPACITY);
+        ChatterException e = assertThrows(ChatterException.class, () ->
+                Parser.parse("undo", tasks, ui, storage, history));
+        assertEquals("There is nothing to undo!", e.getMessage());
+        for (int i = 1; i <= 5; i++) {
+            Parser.parse("todo task " + i, tasks, ui, storage, history);
+        }
+        Parser.parse("mark 2-4", tasks, ui, storage, history);
+        Parser.parse("mark 3", tasks, ui, storage, history);
+        Parser.parse("delete 1,3,5", tasks, ui, storage, history);
+        Parser.parseBatch(List.of("unmark 1", "delete 2", "todo task 6"), tasks, ui, storage, history);
+        assertEquals("[T | 0 | task 2, T | 0 | task 6]", saveFormats(tasks));
+
+        Parser.parse("undo", tasks, ui, storage, history);
+        assertEquals("[T | 1 | task 2, T | 1 | task 4]", saveFormats(tasks));
+        Parser.parse("undo", tasks, ui, storage, history);
+        Parser.parse("undo", tasks, ui, storage, history);
+        assertEquals("[T | 0 | task 1, T | 0 | task 2, T | 0 | task 3, T | 0 | task 4, T | 0 | task 5]",
+                saveFormats(tasks));
+        Parser.parse("redo", tasks, ui, storage, history);
+        Parser.parse("redo", tasks, ui, storage, history);
+        assertEquals("[T | 1 | task 2, T | 1 | task 4]", saveFormats(tasks));
+        Parser.parse("todo task 7", tasks, ui, storage, history);
+        e = assertThrows(ChatterException.class, () -> Parser.parse("redo", tasks, ui, storage, history));
+        assertEquals("There is nothing to redo!", e.getMessage());
+        e = assertThrows(ChatterException.class, () ->
+                Parser.parseBatch(List.of("todo task 8", "undo"), tasks, ui, storage, history));
+        assertEquals("Line 2 (undo) failed: undo cannot be used inside a batch!\n   None of the commands were applied.",
+                e.getMessage());
+        storage.close();
+
+        Storage reloaded = new Storage(file.toString());
+        reloaded.setJournaled(true);
+        assertEquals("[T | 1 | task 2, T | 1 | task 4, T | 0 | task 7]", saveFormats(reloaded.load()));
+        reloaded.close();
+    }
+
+    @Test
+    public void parseBatch_unexpectedFailure_transactionRolledBack() throws Exception {
+        Storage storage = new Storage(Files.createTempFile("test", ".txt").toString());
+        TaskList tasks = new IndexedTaskList(new ArrayList<>(List.of(new ToDo("task 0")))) {
+            @Override
+            public void add(Task t) {
+                throw new IllegalStateException("unexpected");
+            }
+        };
+        Ui ui = new Ui();
+        assertThrows(IllegalStateException.class, () ->
+                Parser.parseBatch(List.of("mark 1", "todo task 1"), tasks, ui, storage));
+        assertEquals("[T | 0 | task 0]", saveFormats(tasks));
+        tasks.beginTransaction();
+        tasks.rollback();
+        tasks.rollback();
+        storage.close();
+    }
+
+    private static String saveFormats(TaskList tasks) {
+        return tasks.getAllTasks().stream().map(Task::toSaveFormat).collect(Collectors.toList()).toString();
+    }
+}
@@ -0,0 +1,153 @@
+package chatter.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import chatter.storage.Storage;
+
+public class ChatterServerTest {
+    /** Commands a load-generator client sends before waiting for their answers */
+    private static final int WINDOW = 50;
+
+    @Test
+    public void serve_loadGenerator_everyCommandAnsweredAndSaved() throws Exception {
+        int clientCount = 4;
+        int commandsPerClient = 200;
+        Path dataDir = Files.createTempDirectory("users");
+        ChatterServer server = new ChatterServer(dataDir, clientCount, 60_000);
+        server.start(0);
+        ExecutorService clients = Executors.newFixedThreadPool(clientCount);
+        try {
+            List<Future<Integer>> answers = new ArrayList<>();
+            for (int c = 0; c < clientCount; c++) {
+                String user = "user" + c;
+                answers.add(clients.submit(() -> runCommands(server.getPort(), user, commandsPerClient)));
+            }
+            for (Future<Integer> answer : answers) {
+                int answered = answer.get();
+                assertEquals(commandsPerClient, answered);
+            }
+        } finally {
+            clients.shutdown();
+            server.close();
+        }
+
+        for (int c = 0; c < clientCount; c++) {
+            Storage storage = new Storage(dataDir.resolve("user" + c + ".txt").toString());
+            storage.setJournaled(true);
+            assertEquals(commandsPerClient / 2, storage.load().getSize());
+        }
+    }
+
+    @Test
+    public void serve_idleSession_evictedAndFlushed() throws Exception {
+        Path dataDir = Files.createTempDirectory("users");
+        ChatterServer server = new ChatterServer(dataDir, 1, 100);
+        server.start(0);
+        try {
+            try (Client alice = new Client(server.getPort(), "alice")) {
+                assertTrue(alice.send("todo read").get(1).contains("Got it. I've added this task:"));
+                assertTrue(alice.send("import " + dataDir.resolve("alice.txt")).get(1).contains("not available"));
+            }
+            try (Client bob = new Client(server.getPort(), "bad name")) {
+                assertTrue(bob.welcome.get(1).contains("User names must be"));
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (server.getSessionCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(0, server.getSessionCount());
+
+            Storage storage = new Storage(dataDir.resolve("alice.txt").toString());
+            storage.setJournaled(true);
+            assertEquals("T | 0 | read", storage.load().get(0).toSaveFormat());
+            storage.close();
+            try (Client alice = new Client(server.getPort(), "Alice")) {
+                assertTrue(String.join("\n", alice.send("list")).contains("read"));
+            }
+        } finally {
+            server.close();
+        }
+    }
+
+    /**
+     * Adds {@code count / 2} tasks as {@code user} and marks each of them, keeping up to {@link #WINDOW}
+     * commands in flight, and returns the number of answers received.
+     */
+    private static int runCommands(int port, String user, int count) throws IOException {
+        try (Client client = new Client(port, user)) {
+            int answered = 0;
+            for (int sent = 0; sent < count; ) {
+                int windowEnd = Math.min(count, sent + WINDOW);
+                for (; sent < windowEnd; sent++) {
+                    int task = sent / 2;
+                    client.out.write(sent % 2 == 0 ? "todo task " + task + "\n" : "mark " + (task + 1) + "\n");
+                }
+                client.out.flush();
+                for (; answered < windowEnd; answered++) {
+                    String response = String.join("\n", client.readAnswer());
+                    assertTrue(response.contains("Got it") || response.contains("Nice!"), response);
+                }
+            }
+            return answered;
+        }
+    }
+
+    /**
+     * Connection to a {@link ChatterServer} as one user.
+     */
+    private static class Client implements AutoCloseable {
+        private final Socket socket;
+        private final Writer out;
+        private final BufferedReader in;
+        private final List<String> welcome;
+
+        Client(int port, String user) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out.write(user + "\n");
+            out.flush();
+            welcome = readAnswer();
+        }
+
+        List<String> send(String command) throws IOException {
+            out.write(command + "\n");
+            out.flush();
+            return readAnswer();
+        }
+
+        List<String> readAnswer() throws IOException {
+            List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null && !line.equals(".")) {
+                lines.add(line);
+            }
+            return lines;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package chatter.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import chatter.task.Task;
+
+public class SaveFormatCheckTest {
+
+    @Test
+    public void isValid_sameAsFromSaveFormat() {
+        String[] lines = {"T | 0 | read", "T | 1 | read | extra", "T | 0 | ", "T | 0 |  | x", "T | 0 |  | ",
+            "T | 0", "T", "", "X | 0 | read", "TT | 0 | read", " T | 0 | read", "T |0 | read", "T | 0 | ünïcode",
+            "D | 0 | report | 2024-01-01 1200", "D | 1 | report | 2024-01-01 1200 | extra", "D | 0 | report",
+            "D | 0 |  | 2024-01-01 1200", "D | 0 | report | 2024-02-30 1200", "D | 0 | report | 2024-02-29 2400",
+            "D | 0 | report | 2024-13-01 1200", "D | 0 | report | 0000-01-01 1200",
+            "D | 0 | report | +12024-01-01 1200",
+            "D | 0 | report | 2024-01-01 12:00", "D | 0 | report | 2024-01-01 1200 ",
+            "E | 0 | camp | 2024-01-01 1200 | 2024-01-02 0800", "E | 0 | camp | 2024-01-02 0800 | 2024-01-01 1200",
+            "E | 0 | camp | 2024-01-01 1200 | 2024-01-01 1200", "E | 0 | camp | 2024-02-29 1200 | 2024-02-30 1100",
+            "E | 0 | camp | 2024-01-01 1200", "E | 1 | camp | 1969-12-31 2359 | 2024-01-02 0800 | extra"};
+        for (String line : lines) {
+            boolean isParsed;
+            try {
+                Task.fromSaveFormat(line);
+                isParsed = true;
+            } catch (Exception e) {
+                isParsed = false;
+            }
+            byte[] bytes = ("#" + line + "\r\n").getBytes(StandardCharsets.UTF_8);
+            boolean isValid = SaveFormatCheck.isValid(ByteBuffer.wrap(bytes), 1, bytes.length - 2);
+            assertEquals(isParsed, isValid, line);
+        }
+    }
+}
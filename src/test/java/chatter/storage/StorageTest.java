@@ -1,13 +1,21 @@
 package chatter.storage;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
+import chatter.task.IndexedTaskList;
+import chatter.task.Task;
 import chatter.task.TaskList;
 import chatter.task.ToDo;
 
@@ -17,11 +25,245 @@ public class StorageTest {
     public void save_validInput_success() throws Exception {
         Path tempFile = Files.createTempFile("test", ".txt");
         Storage storage = new Storage(tempFile.toString());
-        TaskList tasks = new TaskList();
+        TaskList tasks = new IndexedTaskList();
         ToDo task = new ToDo("Testing");
         tasks.add(task);
         storage.save(tasks);
         List<String> lines = Files.readAllLines(tempFile);
         assertEquals(task.toSaveFormat(), lines.get(0));
     }
+
+    @Test
+    public void load_journaledWithoutClose_replaysRecords() throws Exception {
+        Path tempFile = Files.createTempDirectory("test").resolve("tasks.txt");
+        Storage storage = new Storage(tempFile.toString());
+        storage.setJournaled(true);
+        TaskList tasks = storage.load();
+        tasks.add(new ToDo("first"));
+        storage.recordAdd(tasks.get(0), tasks);
+        tasks.add(new ToDo("second"));
+        storage.recordAdd(tasks.get(1), tasks);
+        tasks.get(1).markAsDone();
+        storage.recordMark(1, tasks);
+        tasks.remove(0);
+        storage.recordRemove(0, tasks);
+
+        Storage reopened = new Storage(tempFile.toString());
+        reopened.setJournaled(true);
+        TaskList loaded = reopened.load();
+        assertEquals(1, loaded.getSize());
+        assertEquals("T | 1 | second", loaded.get(0).toSaveFormat());
+        assertEquals("T | 1 | second", Files.readAllLines(tempFile).get(0));
+    }
+
+    @Test
+    public void load_lazyMode_sameTasksAsStreaming() throws Exception {
+        Path tempFile = Files.createTempFile("test", ".txt");
+        Files.write(tempFile, List.of("T | 0 | a", "D | 1 | b | 2024-01-01 1200", "bad", "T | 0 | c"));
+        Storage storage = new Storage(tempFile.toString());
+        storage.setLoadMode(LoadMode.LAZY);
+        TaskList lazy = storage.load();
+        assertEquals(3, lazy.getSize());
+        assertEquals("D | 1 | b | 2024-01-01 1200", lazy.get(1).toSaveFormat());
+        assertEquals("T | 0 | c", lazy.get(2).toSaveFormat());
+        assertEquals(1, storage.getLoadReport().getMalformedCount());
+
+        assertEquals(3, lazy.getAllTasks().size());
+        assertEquals(1, storage.getLoadReport().getMalformedCount());
+        assertEquals(new Storage(tempFile.toString()).load().getAllTasks(), lazy.getAllTasks());
+    }
+
+    @Test
+    public void load_parallelChunks_sameTasksAndReportAsStreaming() throws Exception {
+        Path tempFile = Files.createTempFile("test", ".txt");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 5_000; i++) {
+            content.append(i % 7 == 0 ? "bad " + i : i % 3 == 0 ? "D | 1 | déjà vu " + i + " | 2024-01-01 1200"
+                    : "T | 0 | task " + i);
+            content.append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        content.append("\nT | 1 | last");
+        Files.writeString(tempFile, content);
+        Storage storage = new Storage(tempFile.toString());
+        List<String> streamed = saveFormats(storage.load().getAllTasks());
+
+        LoadReport report = new LoadReport();
+        List<Task> parallel = ParallelTaskLoader.load(tempFile, report, new DescriptionPool(0, report), 4096);
+        assertEquals(streamed, saveFormats(parallel));
+        assertEquals(storage.getLoadReport().toString(), report.toString());
+        assertEquals(storage.getLoadReport().getMalformedCount(), report.getMalformedCount());
+    }
+
+    @Test
+    public void load_deferredModeWithMalformedLine_journaledMarkSurvivesReload() throws Exception {
+        for (LoadMode mode : List.of(LoadMode.LAZY, LoadMode.MAPPED)) {
+            Path tempFile = Files.createTempDirectory("test").resolve("tasks.txt");
+            Files.write(tempFile, List.of("T | 0 | a", "bad", "T | 0 | c"));
+            Storage storage = new Storage(tempFile.toString());
+            storage.setJournaled(true);
+            storage.setLoadMode(mode);
+            TaskList deferred = storage.load();
+            assertEquals(2, deferred.getSize());
+            assertEquals(1, storage.getLoadReport().getMalformedCount());
+            deferred.mark(1);
+            storage.recordMark(1, deferred);
+
+            Storage reopened = new Storage(tempFile.toString());
+            reopened.setJournaled(true);
+            TaskList loaded = reopened.load();
+            assertEquals("T | 0 | a", loaded.get(0).toSaveFormat());
+            assertEquals("T | 1 | c", loaded.get(1).toSaveFormat());
+        }
+    }
+
+    @Test
+    public void load_binaryFormat_migratesTextFile() throws Exception {
+        Path tempFile = Files.createTempFile("test", ".txt");
+        List<String> lines = List.of("T | 1 | read", "D | 0 | report | 2024-01-01 1200",
+                "E | 1 | camp | 1969-12-31 2359 | 2024-01-02 0800");
+        Files.write(tempFile, lines);
+        Storage binary = new Storage(tempFile.toString());
+        binary.setFormat(StorageFormat.BINARY);
+        binary.load();
+        assertEquals(0x89, Files.readAllBytes(tempFile)[0] & 0xFF);
+
+        Storage text = new Storage(tempFile.toString());
+        TaskList tasks = text.load();
+        assertEquals(lines.get(2), tasks.get(2).toSaveFormat());
+        assertEquals(lines, Files.readAllLines(tempFile));
+    }
+
+    @Test
+    public void load_corruptBinaryRecord_earlierTasksKept() throws Exception {
+        Path tempFile = Files.createTempFile("test", ".txt");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.writeBytes(BinaryTaskCodec.encode(List.of(new ToDo("a"))));
+        bytes.writeBytes(new byte[] {'D', 0, 1, 'b', 1, 0, 0, 0, 0, 0, 0, 0});
+        bytes.writeBytes(new byte[] {'D', 0, 1, 'b', 0x7F, -1, -1, -1, -1, -1, -1, -1});
+        bytes.writeBytes(new byte[] {'E', 0, 1, 'b', 0, 0, 0, 0, 0, 0, 0, 2, 0, 0, 0, 0, 0, 0, 0, 1});
+        bytes.writeBytes(new byte[] {'T', 0, 1, 'c'});
+        bytes.writeBytes(new byte[] {'X', 0, 1, 'd'});
+        bytes.writeBytes(new byte[] {'T', 0, 1, 'e'});
+        for (LoadMode mode : LoadMode.values()) {
+            Files.write(tempFile, bytes.toByteArray());
+            Storage storage = new Storage(tempFile.toString());
+            storage.setFormat(StorageFormat.BINARY);
+            storage.setLoadMode(mode);
+            TaskList tasks = storage.load();
+            assertEquals(2, tasks.getAllTasks().size());
+            assertEquals("T | 0 | c", tasks.get(1).toSaveFormat());
+            assertEquals(4, storage.getLoadReport().getMalformedCount());
+        }
+    }
+
+    @Test
+    public void load_binaryLargerThanReadBuffer_recordsAcrossRefillsDecoded() throws Exception {
+        Path tempFile = Files.createTempFile("test", ".txt");
+        List<Task> written = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            written.add(new ToDo("task " + i));
+        }
+        written.add(5_000, new ToDo("long".repeat(50_000)));
+        byte[] bytes = BinaryTaskCodec.encode(written);
+        Files.write(tempFile, Arrays.copyOf(bytes, bytes.length - 1));
+        Storage storage = new Storage(tempFile.toString());
+        storage.setFormat(StorageFormat.BINARY);
+        TaskList tasks = storage.load();
+        assertEquals(written.subList(0, written.size() - 1), tasks.getAllTasks());
+        assertEquals(1, storage.getLoadReport().getMalformedCount());
+    }
+
+    @Test
+    public void load_mappedMode_decodesBothFormats() throws Exception {
+        Path tempFile = Files.createTempFile("test", ".txt");
+        Files.write(tempFile, List.of("T | 0 | a", "E | 1 | b | 2024-01-01 1200 | 2024-01-02 1200"));
+        for (StorageFormat format : StorageFormat.values()) {
+            Storage storage = new Storage(tempFile.toString());
+            storage.setFormat(format);
+            storage.load();
+            Storage mapped = new Storage(tempFile.toString());
+            mapped.setFormat(format);
+            mapped.setLoadMode(LoadMode.MAPPED);
+            TaskList tasks = mapped.load();
+            assertEquals(2, tasks.getSize());
+            assertEquals("E | 1 | b | 2024-01-01 1200 | 2024-01-02 1200", tasks.get(1).toSaveFormat());
+        }
+    }
+
+    @Test
+    public void flush_saveWindow_writesCoalescedChanges() throws Exception {
+        Path tempFile = Files.createTempFile("test", ".txt");
+        Storage storage = new Storage(tempFile.toString());
+        storage.setSaveWindow(60_000);
+        TaskList tasks = storage.load();
+        for (int i = 0; i < 3; i++) {
+            tasks.add(new ToDo("task " + i));
+            storage.recordAdd(tasks.get(i), tasks);
+        }
+        assertEquals(0, Files.size(tempFile));
+        storage.flush();
+        assertEquals(List.of("T | 0 | task 0", "T | 0 | task 1", "T | 0 | task 2"), Files.readAllLines(tempFile));
+        assertEquals(List.of(), storage.takeErrors());
+        storage.close();
+    }
+
+    @Test
+    public void load_unterminatedBatch_batchDropped() throws Exception {
+        Path tempFile = Files.createTempDirectory("test").resolve("tasks.txt");
+        Files.write(tempFile, List.of("T | 0 | a"));
+        Files.write(tempFile.resolveSibling("tasks.txt.journal.0"),
+                List.of("B", "A T | 0 | b", "M 0", "E", "A T | 0 | c", "B", "A T | 0 | d", "R 0"));
+        Storage storage = new Storage(tempFile.toString());
+        storage.setJournaled(true);
+        TaskList loaded = storage.load();
+        assertEquals(3, loaded.getSize());
+        assertEquals("T | 1 | a", loaded.get(0).toSaveFormat());
+        assertEquals("T | 0 | c", loaded.get(2).toSaveFormat());
+        storage.close();
+    }
+
+    @Test
+    public void load_leftoverSnapshots_newestInstalledAndBadRecordReported() throws Exception {
+        Path tempFile = Files.createTempDirectory("test").resolve("tasks.txt");
+        Files.write(tempFile, List.of("T | 0 | old"));
+        Files.write(tempFile.resolveSibling("tasks.txt.snapshot.10"), List.of("T | 0 | newest"));
+        Files.write(tempFile.resolveSibling("tasks.txt.snapshot.9"), List.of("T | 0 | older"));
+        Files.write(tempFile.resolveSibling("tasks.txt.journal.11"), List.of("A T | 0 | next", "M 7"));
+        Storage storage = new Storage(tempFile.toString());
+        storage.setJournaled(true);
+        TaskList loaded = storage.load();
+        assertEquals(2, loaded.getSize());
+        assertEquals("T | 0 | newest", loaded.get(0).toSaveFormat());
+        assertFalse(Files.exists(tempFile.resolveSibling("tasks.txt.snapshot.9")));
+        assertEquals(1, storage.getLoadReport().getMalformedCount());
+        assertTrue(storage.getLoadReport().toString().contains("tasks.txt.journal.11 line 2: M 7"));
+        storage.close();
+    }
+
+    @Test
+    public void load_descriptionPool_repeatedDescriptionsShared() throws Exception {
+        Path tempFile = Files.createTempFile("test", ".txt");
+        Files.write(tempFile, List.of("T | 0 | weekly sync", "D | 1 | weekly sync | 2024-01-01 1200",
+                "T | 0 | other", "E | 0 | weekly sync | 2024-01-02 1200 | 2024-01-02 1300"));
+        for (LoadMode mode : LoadMode.values()) {
+            Storage storage = new Storage(tempFile.toString());
+            storage.setLoadMode(mode);
+            storage.setDescriptionPoolSize(64);
+            TaskList tasks = storage.load();
+            assertSame(tasks.get(0).getDescription(), tasks.get(1).getDescription());
+            assertSame(tasks.get(0).getDescription(), tasks.get(3).getDescription());
+            assertEquals("D | 1 | weekly sync | 2024-01-01 1200", tasks.get(1).toSaveFormat());
+            assertEquals(2, storage.getLoadReport().getDeduplicatedCount());
+            assertEquals(2 * (24 + 32), storage.getLoadReport().getBytesSaved());
+            storage.close();
+        }
+    }
+
+    private static List<String> saveFormats(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task t : tasks) {
+            lines.add(t.toSaveFormat());
+        }
+        return lines;
+    }
 }
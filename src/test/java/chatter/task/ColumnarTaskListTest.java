@@ -0,0 +1,66 @@
+package chatter.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import chatter.exception.ChatterException;
+
+public class ColumnarTaskListTest {
+
+    @Test
+    public void add_duplicateAfterRemove_success() throws Exception {
+        TaskList tasks = new ColumnarTaskList();
+        tasks.add(new Deadline("report", "2024-01-01 1200"));
+        tasks.add(new ToDo("report"));
+        tasks.mark(1);
+        ChatterException e = assertThrows(ChatterException.class, () -> tasks.add(new ToDo("report")));
+        assertEquals("This task already exists in your task list!", e.getMessage());
+        tasks.add(new Deadline("report", "2024-01-01 1300"));
+        tasks.remove(1);
+        tasks.add(new ToDo("report"));
+        assertEquals(List.of("D | 0 | report | 2024-01-01 1200", "D | 0 | report | 2024-01-01 1300",
+                "T | 0 | report"), saveFormats(tasks));
+    }
+
+    @Test
+    public void queries_sameResultsAsTaskList() throws Exception {
+        List<Task> initial = List.of(new Event("Café trip", "2024-01-01 0900", "2024-01-10 1800"),
+                new Deadline("Read REPORT", "2024-01-05 1200"), new ToDo("read notes"),
+                new Deadline("taxes", "2024-02-01 1200"));
+        TaskList columnar = new ColumnarTaskList(initial);
+        assertEquals("[E][ ] Café trip (from: Jan 01 2024 9:00AM to: Jan 10 2024 6:00PM)",
+                columnar.get(0).toString());
+        assertEquals(List.of("Read REPORT", "read notes"), descriptions(columnar.findMatching("READ")));
+        assertEquals(List.of("Café trip"), descriptions(columnar.findMatching("CAFÉ")));
+        assertEquals(List.of("Café trip", "Read REPORT"),
+                descriptions(columnar.findOn(LocalDate.of(2024, 1, 5))));
+        assertEquals(List.of("taxes"),
+                descriptions(columnar.findBetween(LocalDate.of(2024, 1, 11), LocalDate.of(2024, 2, 1))));
+
+        columnar.beginTransaction();
+        columnar.markAll(columnar.selectMatching("read"));
+        BitSet selected = new BitSet();
+        selected.set(0, 2);
+        columnar.removeAll(selected);
+        columnar.add(new ToDo("new"));
+        assertEquals(List.of("T | 1 | read notes", "D | 0 | taxes | 2024-02-01 1200", "T | 0 | new"),
+                saveFormats(columnar));
+        columnar.rollback();
+        assertEquals(saveFormats(new IndexedTaskList(new ArrayList<>(initial))), saveFormats(columnar));
+    }
+
+    private static List<String> saveFormats(TaskList tasks) {
+        return tasks.getAllTasks().stream().map(Task::toSaveFormat).toList();
+    }
+
+    private static List<String> descriptions(List<Task> tasks) {
+        return tasks.stream().map(Task::getDescription).toList();
+    }
+}
@@ -0,0 +1,73 @@
+package chatter.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentTaskListTest {
+
+    @Test
+    public void getAllTasks_snapshotUnchangedByLaterWrites() throws Exception {
+        TaskList tasks = new ConcurrentTaskList(List.of(new ToDo("read"), new ToDo("write")));
+        List<Task> before = tasks.getAllTasks();
+        tasks.mark(0);
+        tasks.remove(1);
+        tasks.add(new ToDo("review"));
+        assertFalse(before.get(0).isDone());
+        assertEquals(List.of("T | 0 | read", "T | 0 | write"), saveFormats(before));
+        assertEquals(List.of("T | 1 | read", "T | 0 | review"), saveFormats(tasks.getAllTasks()));
+    }
+
+    @Test
+    public void transaction_invisibleToOtherThreadsUntilCommit() throws Exception {
+        TaskList tasks = new ConcurrentTaskList(List.of(new ToDo("read"), new ToDo("write")));
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            tasks.beginTransaction();
+            tasks.add(new ToDo("review"));
+            BitSet all = new BitSet();
+            all.set(0, 3);
+            tasks.markAll(all);
+            assertEquals(3, tasks.getSize());
+            Future<List<String>> seen = reader.submit(() -> saveFormats(tasks.getAllTasks()));
+            assertEquals(List.of("T | 0 | read", "T | 0 | write"), seen.get());
+            tasks.commit();
+            seen = reader.submit(() -> saveFormats(tasks.getAllTasks()));
+            assertEquals(List.of("T | 1 | read", "T | 1 | write", "T | 1 | review"), seen.get());
+
+            tasks.beginTransaction();
+            tasks.removeAll(tasks.selectDone());
+            tasks.add(new ToDo("plan"));
+            tasks.rollback();
+            assertEquals(3, tasks.getSize());
+            assertTrue(tasks.selectMatching("plan").isEmpty());
+            tasks.rollback();
+            tasks.commit();
+            reader.submit(() -> {
+                tasks.add(new ToDo("plan"));
+                return null;
+            }).get();
+            int sizeSeen = tasks.getSize();
+            assertEquals(4, sizeSeen);
+        } finally {
+            reader.shutdown();
+        }
+    }
+
+    private static List<String> saveFormats(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task t : tasks) {
+            lines.add(t.toSaveFormat());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,48 @@
+package chatter.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import org.junit.jupiter.api.Test;
+
+public class DateTimeCodecTest {
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+
+    @Test
+    public void parse_sameAsDateTimeFormatter() {
+        String[] valid = {"2024-01-05 0930", "2000-02-29 2359", "0001-01-01 0000", "9999-12-31 2359",
+            "2024-02-30 1200", "1900-02-29 0000", "2024-04-31 0000", "2024-02-29 2400"};
+        for (String text : valid) {
+            assertEquals(LocalDateTime.parse(text, FORMAT), DateTimeCodec.parse(text));
+        }
+        String[] invalid = {"2024-13-01 1200", "2024-01-01 1260", "2024-1-01 1200", "0000-01-01 0000",
+            " 2024-01-01 1200", "2024/01/01 1200", "2024-01-01 12:00"};
+        for (String text : invalid) {
+            assertThrows(DateTimeParseException.class, () -> DateTimeCodec.parse(text));
+        }
+    }
+
+    @Test
+    public void format_sameAsDateTimeFormatter() {
+        LocalDateTime[] dateTimes = {LocalDateTime.of(2024, 1, 5, 9, 30), LocalDateTime.of(1, 1, 1, 0, 0),
+            LocalDateTime.of(9999, 12, 31, 23, 59), LocalDateTime.of(12024, 6, 1, 7, 5),
+            LocalDateTime.of(0, 6, 1, 7, 5)};
+        for (LocalDateTime dateTime : dateTimes) {
+            assertEquals(dateTime.format(FORMAT), DateTimeCodec.format(dateTime));
+        }
+    }
+
+    @Test
+    public void toString_changesWhenMarked() throws Exception {
+        Deadline deadline = new Deadline("report", "2024-01-05 0930");
+        assertEquals("[D][ ] report (by: Jan 05 2024 9:30AM)", deadline.toString());
+        deadline.markAsDone();
+        assertEquals("[D][X] report (by: Jan 05 2024 9:30AM)", deadline.toString());
+        deadline.unmark();
+        assertEquals("[D][ ] report (by: Jan 05 2024 9:30AM)", deadline.toString());
+    }
+}
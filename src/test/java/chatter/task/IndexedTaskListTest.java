@@ -0,0 +1,99 @@
+package chatter.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import chatter.exception.ChatterException;
+
+public class IndexedTaskListTest {
+
+    @Test
+    public void get_tooLargeInput_exceptionThrown() {
+        TaskList tasks = new IndexedTaskList();
+        try {
+            tasks.get(10);
+        } catch (ChatterException e) {
+            assertEquals("You don't have that many task!", e.getMessage());
+        }
+    }
+
+    @Test
+    public void add_duplicateAfterRemove_success() throws Exception {
+        TaskList tasks = new IndexedTaskList();
+        tasks.add(new Deadline("report", "2024-01-01 1200"));
+        tasks.add(new ToDo("report"));
+        ChatterException e = assertThrows(ChatterException.class, () -> tasks.add(new ToDo("report")));
+        assertEquals("This task already exists in your task list!", e.getMessage());
+        tasks.remove(1);
+        tasks.add(new ToDo("report"));
+        assertEquals(2, tasks.getSize());
+    }
+
+    @Test
+    public void findMatching_multipleWords_caseInsensitiveAndMatch() throws Exception {
+        TaskList tasks = new IndexedTaskList();
+        tasks.add(new ToDo("Read Book"));
+        tasks.add(new ToDo("book club"));
+        tasks.add(new ToDo("read notes"));
+        assertEquals(2, tasks.findMatching("BOOK").size());
+        assertEquals("Read Book", tasks.findMatching("book read").get(0).getDescription());
+        tasks.remove(0);
+        assertEquals(0, tasks.findMatching("book read").size());
+    }
+
+    @Test
+    public void findBetween_deadlinesAndEvents_listOrder() throws Exception {
+        TaskList tasks = new IndexedTaskList();
+        tasks.add(new Event("trip", "2024-01-01 0900", "2024-01-10 1800"));
+        tasks.add(new Deadline("report", "2024-01-05 1200"));
+        tasks.add(new Deadline("taxes", "2024-02-01 1200"));
+        assertEquals(2, tasks.findOn(LocalDate.of(2024, 1, 5)).size());
+        assertEquals("taxes", tasks.findBetween(LocalDate.of(2024, 1, 11), LocalDate.of(2024, 2, 1))
+                .get(0).getDescription());
+        tasks.remove(0);
+        assertEquals("report", tasks.findOn(LocalDate.of(2024, 1, 5)).get(0).getDescription());
+    }
+
+    @Test
+    public void rollback_mixedChanges_restoresListAndIndexes() throws Exception {
+        TaskList tasks = new IndexedTaskList();
+        tasks.add(new Deadline("report", "2024-01-01 1200"));
+        tasks.add(new ToDo("read book"));
+        tasks.add(new Deadline("return book", "2024-01-01 1800"));
+        tasks.beginTransaction();
+        tasks.mark(1);
+        tasks.remove(0);
+        tasks.add(new ToDo("report"));
+        tasks.remove(1);
+        tasks.rollback();
+
+        assertEquals(3, tasks.getSize());
+        assertEquals("D | 0 | report | 2024-01-01 1200", tasks.get(0).toSaveFormat());
+        assertEquals("T | 0 | read book", tasks.get(1).toSaveFormat());
+        assertEquals(List.of(tasks.get(0), tasks.get(2)), tasks.findOn(LocalDate.of(2024, 1, 1)));
+        assertEquals(List.of(tasks.get(1), tasks.get(2)), tasks.findMatching("book"));
+        assertThrows(ChatterException.class, () -> tasks.add(new Deadline("report", "2024-01-01 1200")));
+    }
+
+    @Test
+    public void insert_manyAtSameIndex_indexesKeepListOrder() throws Exception {
+        TaskList tasks = new IndexedTaskList();
+        tasks.add(new ToDo("first book"));
+        tasks.add(new Deadline("last book", "2024-01-01 1200"));
+        for (int i = 0; i < 40; i++) {
+            tasks.insert(1, new Deadline("book " + i, "2024-01-01 0900"));
+        }
+        assertThrows(ChatterException.class, () -> tasks.insert(43, new ToDo("extra book")));
+
+        List<Task> all = tasks.getAllTasks();
+        assertEquals(42, all.size());
+        assertEquals("book 0", all.get(40).getDescription());
+        assertEquals(all, tasks.findMatching("book"));
+        assertEquals(all.subList(1, 42), tasks.findOn(LocalDate.of(2024, 1, 1)));
+    }
+}
@@ -0,0 +1,34 @@
+package chatter.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import chatter.exception.ChatterException;
+import chatter.task.IndexedTaskList;
+import chatter.task.TaskList;
+import chatter.task.ToDo;
+
+public class UiTest {
+
+    @Test
+    public void showList_secondPage_onlyThatPage() throws Exception {
+        TaskList tasks = new IndexedTaskList();
+        for (int i = 1; i <= 5; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        String page = new Ui().showList(tasks, 2, 2);
+        assertTrue(page.contains("   3.[T][ ] task 3\n   4.[T][ ] task 4\n"));
+        assertEquals(-1, page.indexOf("task 5"));
+        assertTrue(page.contains("   Showing tasks 3-4 of 5 (page 2 of 3).\n"));
+    }
+
+    @Test
+    public void showList_pageTooLarge_exceptionThrown() {
+        ChatterException e = assertThrows(ChatterException.class,
+                () -> new Ui().showList(new IndexedTaskList(), 2, 10));
+        assertEquals("Your list only has 1 page!", e.getMessage());
+    }
+}